@@ -0,0 +1,149 @@
+package com.journal;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table model listing the entries of one main activity category.
+ * Row counts come from the rollups, so only the days that are actually displayed
+ * are loaded from disk, and cells are formatted when they are painted.
+ */
+public class ActivityTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    public static final int NOTE_COLUMN = 7;
+    private static final String[] COLUMN_NAMES = {"Date", "Start Time", "End Time", "Activity",
+            "Duration (hrs)", "Consuming", "Productive", "Note"};
+    private static final int MAX_LOADED_DAYS = 64;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final JournalManager journalManager;
+    private final String mainCategory;
+    private final LocalDate[] dates;
+    private final int[] firstRowOfDate;
+    private final int rowCount;
+    private final double totalHours;
+    private final Map<LocalDate, List<JournalEntry>> loadedDays;
+
+    /**
+     * @param dateFilter If not null, only entries of this date are listed
+     */
+    public ActivityTableModel(JournalManager journalManager, String mainCategory, LocalDate dateFilter) {
+        this.journalManager = journalManager;
+        this.mainCategory = mainCategory.toLowerCase();
+        this.loadedDays = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, List<JournalEntry>> eldest) {
+                return size() > MAX_LOADED_DAYS;
+            }
+        };
+
+        Map<LocalDate, RollupStore.Rollup> days = dateFilter != null
+                ? Map.of(dateFilter, journalManager.getRollups().getDay(dateFilter))
+                : journalManager.getRollups().getDaily(LocalDate.MIN, LocalDate.MAX);
+
+        List<LocalDate> matchingDates = new ArrayList<>();
+        List<Integer> firstRows = new ArrayList<>();
+        int rows = 0;
+        long minutes = 0;
+        for (Map.Entry<LocalDate, RollupStore.Rollup> day : days.entrySet()) {
+            int count = day.getValue().getCategoryCount(this.mainCategory);
+            if (count > 0) {
+                matchingDates.add(day.getKey());
+                firstRows.add(rows);
+                rows += count;
+                minutes += day.getValue().getCategoryMinutes().getOrDefault(this.mainCategory, 0L);
+            }
+        }
+
+        this.dates = matchingDates.toArray(new LocalDate[0]);
+        this.firstRowOfDate = firstRows.stream().mapToInt(Integer::intValue).toArray();
+        this.rowCount = rows;
+        this.totalHours = minutes / 60.0;
+    }
+
+    public double getTotalHours() {
+        return totalHours;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        JournalEntry entry = getEntryAt(row);
+        if (entry == null) {
+            return "";
+        }
+
+        switch (column) {
+            case 0: return entry.getStartTime().toLocalDate().format(DATE_FORMATTER);
+            case 1: return entry.getStartTime().format(TIME_FORMATTER);
+            case 2: return entry.getEndTime() != null ? entry.getEndTime().format(TIME_FORMATTER) : "";
+            case 3: return entry.getActivityType();
+            case 4: return String.format("%.2f", entry.getDurationHours());
+            case 5: return entry.isConsuming() ? "Yes" : "No";
+            case 6: return entry.isProductive() ? "Yes" : "No";
+            case NOTE_COLUMN: return !entry.getNote().trim().isEmpty() ? entry.getNote() : "-";
+            default: return "";
+        }
+    }
+
+    /**
+     * Gets the entry shown in a row, loading its day if needed.
+     * Returns null if the day changed on disk since the model was built.
+     */
+    public JournalEntry getEntryAt(int row) {
+        int dateIndex = Arrays.binarySearch(firstRowOfDate, row);
+        if (dateIndex < 0) {
+            dateIndex = -dateIndex - 2;
+        }
+
+        List<JournalEntry> entries = loadDay(dates[dateIndex]);
+        int indexInDay = row - firstRowOfDate[dateIndex];
+        return indexInDay < entries.size() ? entries.get(indexInDay) : null;
+    }
+
+    /**
+     * Loads the entries of this category for a day, sorted by start time.
+     */
+    private List<JournalEntry> loadDay(LocalDate date) {
+        List<JournalEntry> entries = loadedDays.get(date);
+        if (entries == null) {
+            entries = new ArrayList<>();
+            for (JournalEntry entry : journalManager.loadEntriesForDate(date)) {
+                if (mainCategory.equals(entry.getMainCategory()) && entry.getStartTime() != null) {
+                    entries.add(entry);
+                }
+            }
+            entries.sort(Comparator.comparing(JournalEntry::getStartTime));
+            loadedDays.put(date, entries);
+        }
+        return entries;
+    }
+}
@@ -3,16 +3,33 @@ package com.journal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Provides analysis functionality for journal entries.
  * Calculates statistics like consuming/productive percentages and cumulative hours.
  */
 public class AnalysisService {
+    // Enough for the longest range the server accepts, so a range query does not evict its own days
+    private static final int MAX_CACHED_TIMELINE_DAYS = 4000;
+
     private JournalManager journalManager;
     private CategoryManager categoryManager;
+    private TimelineIndex timelineIndex;
+    // Least recently used days are dropped first; guarded by its own lock
+    private final Map<LocalDate, TimelineStats> timelineStatsCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LocalDate, TimelineStats> eldest) {
+            return size() > MAX_CACHED_TIMELINE_DAYS;
+        }
+    };
+    private boolean listening;
 
     public AnalysisService(JournalManager journalManager, CategoryManager categoryManager) {
         this.journalManager = journalManager;
@@ -67,16 +84,150 @@ public class AnalysisService {
 
     /**
      * Calculates lifetime consuming/productive statistics (all entries).
+     * Served from the precomputed rollups instead of re-reading every day.
      */
     public ConsumingProductiveStats getLifetimeStats() {
-        List<LocalDate> dates = journalManager.getAvailableDates();
-        List<JournalEntry> allEntries = new ArrayList<>();
+        return toStats(journalManager.getRollups().getTotal());
+    }
+
+    /**
+     * Calculates consuming/productive statistics between two dates (inclusive).
+     */
+    public ConsumingProductiveStats getStatsForRange(LocalDate from, LocalDate to) {
+        TimelineIndex index = getTimelineIndex();
+        return new ConsumingProductiveStats(
+                index.getConsumingMinutes(from, to) / 60.0,
+                index.getProductiveMinutes(from, to) / 60.0);
+    }
+
+    /**
+     * Gets the productive percentage over a sliding window ending on each day between two dates.
+     * Each window is answered from the prefix sums, so the cost is O(days log n).
+     * @param windowDays Window length in days, including the day itself (e.g. 30)
+     */
+    public NavigableMap<LocalDate, Double> getRollingProductivePercentage(LocalDate from, LocalDate to, int windowDays) {
+        TimelineIndex index = getTimelineIndex();
+        NavigableMap<LocalDate, Double> result = new TreeMap<>();
         
-        for (LocalDate date : dates) {
-            allEntries.addAll(journalManager.loadEntriesForDate(date));
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            LocalDate windowStart = date.minusDays(windowDays - 1L);
+            ConsumingProductiveStats stats = new ConsumingProductiveStats(
+                    index.getConsumingMinutes(windowStart, date) / 60.0,
+                    index.getProductiveMinutes(windowStart, date) / 60.0);
+            result.put(date, stats.getProductivePercentage());
         }
         
-        return calculateStats(allEntries);
+        return result;
+    }
+
+    /**
+     * Gets the prefix-sum index over days, building it from the rollups on first use
+     * and keeping it updated as days change.
+     */
+    private synchronized TimelineIndex getTimelineIndex() {
+        if (timelineIndex == null) {
+            RollupStore rollups = journalManager.getRollups();
+            synchronized (rollups) {
+                TimelineIndex index = TimelineIndex.fromRollups(rollups.getDaily(LocalDate.MIN, LocalDate.MAX));
+                rollups.addListener((date, row) ->
+                        index.setDay(date, row.getConsumingMinutes(), row.getProductiveMinutes()));
+                timelineIndex = index;
+            }
+        }
+        return timelineIndex;
+    }
+
+    /**
+     * Gets tracked, untracked and overlapping time for a day, counting overlapping entries once.
+     * Activities crossing midnight are split between the two days. Results of recently used days
+     * are cached and dropped when the day or the day before it changes.
+     */
+    public TimelineStats getTimelineStatsForDate(LocalDate date) {
+        listenForChanges();
+        TimelineStats stats;
+        synchronized (timelineStatsCache) {
+            stats = timelineStatsCache.get(date);
+        }
+        if (stats == null) {
+            long readVersion = journalManager.getDataVersion();
+            // The previous day may hold entries running past midnight
+            List<JournalEntry> entries = new ArrayList<>(journalManager.loadEntriesForDate(date.minusDays(1)));
+            entries.addAll(journalManager.loadEntriesForDate(date));
+            stats = TimelineStats.sweep(entries, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+            synchronized (timelineStatsCache) {
+                // Stats computed while a write was published may be stale, and its change may already be applied
+                if (journalManager.getDataVersion() == readVersion) {
+                    timelineStatsCache.put(date, stats);
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Gets tracked, untracked and overlapping time between two dates (inclusive),
+     * combined from the cached per-day results. Gaps spanning midnight are joined.
+     */
+    public TimelineStats getTimelineStatsForRange(LocalDate from, LocalDate to) {
+        List<TimelineStats> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            days.add(getTimelineStatsForDate(date));
+        }
+        return TimelineStats.combine(days);
+    }
+
+    private synchronized void listenForChanges() {
+        if (!listening) {
+            journalManager.addChangeListener(this::applyChanges);
+            listening = true;
+        }
+    }
+
+    /**
+     * Keeps the cached timeline stats current: results of changed days (and the days after them) are dropped.
+     */
+    private void applyChanges(List<JournalChange> changes) {
+        synchronized (timelineStatsCache) {
+            for (JournalChange change : changes) {
+                if (change.getType() == JournalChange.Type.DAY_CHANGED) {
+                    timelineStatsCache.remove(change.getDate());
+                    timelineStatsCache.remove(change.getDate().plusDays(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets per-day rollups between two dates (inclusive) for trend charts.
+     */
+    public NavigableMap<LocalDate, RollupStore.Rollup> getDailyTrend(LocalDate from, LocalDate to) {
+        return journalManager.getRollups().getDaily(from, to);
+    }
+
+    /**
+     * Gets per-ISO-week rollups between two dates, keyed by the Monday of each week.
+     */
+    public NavigableMap<LocalDate, RollupStore.Rollup> getWeeklyTrend(LocalDate from, LocalDate to) {
+        return journalManager.getRollups().getWeekly(from, to);
+    }
+
+    /**
+     * Gets per-month rollups between two dates, keyed by the first day of each month.
+     */
+    public NavigableMap<LocalDate, RollupStore.Rollup> getMonthlyTrend(LocalDate from, LocalDate to) {
+        return journalManager.getRollups().getMonthly(from, to);
+    }
+
+    /**
+     * Gets per-month rollups for the last given number of months, including the current one.
+     */
+    public NavigableMap<LocalDate, RollupStore.Rollup> getLastMonthsTrend(int months) {
+        LocalDate today = LocalDate.now();
+        return getMonthlyTrend(today.withDayOfMonth(1).minusMonths(months - 1L), today);
+    }
+
+    private ConsumingProductiveStats toStats(RollupStore.Rollup rollup) {
+        return new ConsumingProductiveStats(rollup.getConsumingHours(), rollup.getProductiveHours());
     }
 
     /**
@@ -104,23 +255,25 @@ public class AnalysisService {
      * Gets cumulative hours for each main activity category.
      */
     public Map<String, Double> getMainActivityHours() {
-        // Rebuild category tree from all entries
-        categoryManager.reset();
-        List<LocalDate> dates = journalManager.getAvailableDates();
+        // Main categories are the first token, which the rollups already aggregate
+        Map<String, Double> result = new HashMap<>();
         
-        for (LocalDate date : dates) {
-            List<JournalEntry> entries = journalManager.loadEntriesForDate(date);
-            categoryManager.processEntries(entries);
+        for (Map.Entry<String, Long> category : journalManager.getRollups().getTotal().getCategoryMinutes().entrySet()) {
+            result.put(category.getKey(), category.getValue() / 60.0);
         }
+        
+        return result;
+    }
 
-        // Get main categories (first level)
-        List<Category> mainCategories = categoryManager.getMainCategories();
+    /**
+     * Gets cumulative hours for each main activity category between two dates (inclusive, null for open ends),
+     * summed from the daily rollups, so no day is loaded.
+     */
+    public Map<String, Double> getMainActivityHours(LocalDate from, LocalDate to) {
         Map<String, Double> result = new HashMap<>();
-        
-        for (Category category : mainCategories) {
-            result.put(category.getActivityTitle(), category.getTotalTimeHours());
+        for (Map.Entry<String, Long> category : sumRollups(journalManager, from, to).getCategoryMinutes().entrySet()) {
+            result.put(category.getKey(), category.getValue() / 60.0);
         }
-        
         return result;
     }
 
@@ -128,13 +281,13 @@ public class AnalysisService {
      * Gets cumulative hours for each main activity category for a specific date.
      */
     public Map<String, Double> getMainActivityHoursForDate(LocalDate date) {
-        // Rebuild category tree for this date only
-        categoryManager.reset();
+        // Build a category tree for this date only, apart from the shared one
+        CategoryManager dayCategories = new CategoryManager();
         List<JournalEntry> entries = journalManager.loadEntriesForDate(date);
-        categoryManager.processEntries(entries);
+        dayCategories.processEntries(entries);
 
         // Get main categories
-        List<Category> mainCategories = categoryManager.getMainCategories();
+        List<Category> mainCategories = dayCategories.getMainCategories();
         Map<String, Double> result = new HashMap<>();
         
         for (Category category : mainCategories) {
@@ -144,53 +297,189 @@ public class AnalysisService {
         return result;
     }
 
+    /**
+     * Gets the hours of the (up to) {@code k} largest subcategories of the lifetime category at a path
+     * (empty for the main categories), largest first. Served from the ranked category tree without sorting.
+     */
+    public Map<String, Double> getTopActivityHours(List<String> path, int k) {
+        return journalManager.getCategoryIndex().read(root -> toHours(findCategory(root, path), k));
+    }
+
+    /**
+     * Gets the hours of the (up to) {@code k} largest subcategories of a date's category at a path
+     * (empty for the main categories), largest first.
+     */
+    public Map<String, Double> getTopActivityHoursForDate(LocalDate date, List<String> path, int k) {
+        CategoryManager dayCategories = new CategoryManager();
+        dayCategories.processEntries(journalManager.loadEntriesForDate(date));
+        return toHours(findCategory(dayCategories.getRootCategory(), path), k);
+    }
+
+    private static Category findCategory(Category root, List<String> path) {
+        Category category = root;
+        for (String token : path) {
+            category = category.getChildren().get(token.toLowerCase());
+            if (category == null) {
+                return null;
+            }
+        }
+        return category;
+    }
+
+    private static Map<String, Double> toHours(Category category, int k) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (category != null) {
+            for (Category child : category.getTopChildren(k)) {
+                result.put(child.getActivityTitle(), child.getTotalTimeHours());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets cumulative hours for each main activity category over the given dates.
+     * Days are processed one at a time, so only the category tree is kept in memory.
+     * The tree is local to the call, so concurrent callers do not share it.
+     */
+    public Map<String, Double> getMainActivityHoursForDates(List<LocalDate> dates) {
+        CategoryManager rangeCategories = new CategoryManager();
+        for (LocalDate date : dates) {
+            rangeCategories.processEntries(journalManager.loadEntriesForDate(date));
+        }
+
+        Map<String, Double> result = new HashMap<>();
+        for (Category category : rangeCategories.getMainCategories()) {
+            result.put(category.getActivityTitle(), category.getTotalTimeHours());
+        }
+        
+        return result;
+    }
+
     /**
      * Gets the full category tree for visualization.
+     * The tree is kept by the journal's category index, which is restored from the state checkpoint
+     * and adjusted as days are written, so it must only be read through {@link #readCategoryTree}
+     * while saves may run.
      */
     public Category getCategoryTree() {
-        // Rebuild category tree from all entries
-        categoryManager.reset();
-        List<LocalDate> dates = journalManager.getAvailableDates();
-        
-        for (LocalDate date : dates) {
-            List<JournalEntry> entries = journalManager.loadEntriesForDate(date);
-            categoryManager.processEntries(entries);
+        return journalManager.getCategoryIndex().getRootCategory();
+    }
+
+    /**
+     * Gets the category tree of the entries between two dates (inclusive, null for open ends).
+     * The lifetime tree is served from the category index; a range tree is built for each call,
+     * so it belongs to the caller.
+     */
+    public Category getCategoryTree(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return getCategoryTree();
+        }
+        // Build the category tree one day at a time, as of one point in time
+        CategoryManager rangeCategories = new CategoryManager();
+        try (JournalSnapshot snapshot = journalManager.openSnapshot()) {
+            snapshot.scanEntries(from, to).forEach(rangeCategories::processEntry);
         }
         
-        return categoryManager.getRootCategory();
+        return rangeCategories.getRootCategory();
+    }
+
+    /**
+     * Reads the category tree of the entries between two dates (inclusive, null for open ends)
+     * while it cannot change underneath the reader.
+     */
+    public <T> T readCategoryTree(LocalDate from, LocalDate to, Function<Category, T> reader) {
+        if (from == null && to == null) {
+            return journalManager.getCategoryIndex().read(reader);
+        }
+        return reader.apply(getCategoryTree(from, to));
+    }
+
+    /**
+     * Calculates consuming/productive statistics over all journals of a set of shards between two dates
+     * (inclusive, null for open ends), reading each journal's rollups in parallel.
+     */
+    public static ConsumingProductiveStats getStatsAcrossShards(JournalShards shards, LocalDate from, LocalDate to) {
+        long consumingMinutes = 0;
+        long productiveMinutes = 0;
+        for (RollupStore.Rollup rollup : shards.mapShards(journal -> sumRollups(journal, from, to)).values()) {
+            consumingMinutes += rollup.getConsumingMinutes();
+            productiveMinutes += rollup.getProductiveMinutes();
+        }
+        return new ConsumingProductiveStats(consumingMinutes / 60.0, productiveMinutes / 60.0);
+    }
+
+    /**
+     * Gets cumulative hours for each main activity category over all journals of a set of shards
+     * between two dates (inclusive, null for open ends).
+     */
+    public static Map<String, Double> getMainActivityHoursAcrossShards(JournalShards shards, LocalDate from, LocalDate to) {
+        Map<String, Double> result = new HashMap<>();
+        for (RollupStore.Rollup rollup : shards.mapShards(journal -> sumRollups(journal, from, to)).values()) {
+            for (Map.Entry<String, Long> category : rollup.getCategoryMinutes().entrySet()) {
+                result.merge(category.getKey(), category.getValue() / 60.0, Double::sum);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sums a journal's daily rollups between two dates, or gets its total when both are null.
+     */
+    private static RollupStore.Rollup sumRollups(JournalManager journal, LocalDate from, LocalDate to) {
+        RollupStore rollups = journal.getRollups();
+        if (from == null && to == null) {
+            return rollups.getTotal();
+        }
+        RollupStore.Rollup sum = new RollupStore.Rollup();
+        for (RollupStore.Rollup day : rollups.getDaily(from != null ? from : LocalDate.MIN,
+                to != null ? to : LocalDate.MAX).values()) {
+            sum.add(day, 1);
+        }
+        return sum;
+    }
+
+    /**
+     * Builds the category tree of the entries between two dates (inclusive, null for open ends)
+     * over all journals of a set of shards. Each journal's tree is copied (or, for a range, built
+     * from a snapshot) in parallel, then the trees are merged.
+     */
+    public static Category getCategoryTreeAcrossShards(JournalShards shards, LocalDate from, LocalDate to) {
+        Map<String, CategoryManager> trees = shards.mapShards(journal -> {
+            CategoryManager tree = new CategoryManager();
+            if (from == null && to == null) {
+                journal.getCategoryIndex().read(root -> {
+                    tree.merge(root);
+                    return null;
+                });
+            } else {
+                try (JournalSnapshot snapshot = journal.openSnapshot()) {
+                    snapshot.scanEntries(from, to).forEach(tree::processEntry);
+                }
+            }
+            return tree;
+        });
+
+        CategoryManager merged = new CategoryManager();
+        for (CategoryManager tree : trees.values()) {
+            merged.merge(tree.getRootCategory());
+        }
+        return merged.getRootCategory();
     }
 
     /**
      * Gets all entries that belong to a specific main activity category (first word).
      * @param mainCategory The main category name (first word of activity)
      * @param dateFilter If not null, only returns entries for this date. If null, returns all entries.
-     * @return List of entries matching the main category
+     * @return List of entries matching the main category, as copies detached from the journal
      */
     public List<JournalEntry> getEntriesByMainCategory(String mainCategory, LocalDate dateFilter) {
-        List<JournalEntry> result = new ArrayList<>();
-        List<LocalDate> datesToCheck;
-        
-        if (dateFilter != null) {
-            datesToCheck = new ArrayList<>();
-            datesToCheck.add(dateFilter);
-        } else {
-            datesToCheck = journalManager.getAvailableDates();
-        }
-        
         String mainCategoryLower = mainCategory.toLowerCase();
         
-        for (LocalDate date : datesToCheck) {
-            List<JournalEntry> entries = journalManager.loadEntriesForDate(date);
-            for (JournalEntry entry : entries) {
-                if (entry.getActivityType() != null) {
-                    List<String> tokens = categoryManager.tokenizeActivity(entry.getActivityType());
-                    if (!tokens.isEmpty() && tokens.get(0).toLowerCase().equals(mainCategoryLower)) {
-                        result.add(entry);
-                    }
-                }
-            }
+        try (JournalSnapshot snapshot = journalManager.openSnapshot()) {
+            return snapshot.scanEntries(dateFilter, dateFilter)
+                    .filter(entry -> mainCategoryLower.equals(entry.getMainCategory()))
+                    .map(JournalEntry::copy)
+                    .collect(Collectors.toList());
         }
-        
-        return result;
     }
 }
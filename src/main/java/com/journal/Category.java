@@ -1,20 +1,35 @@
 package com.journal;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 
 /**
  * Represents a hierarchical category structure for activities.
  * Categories are organized in a tree structure based on tokenized activity names.
+ * Children are also kept ranked by time, re-positioned whenever their time changes,
+ * so the largest children can be read without sorting.
  */
 public class Category {
+    /**
+     * Orders categories by time, largest first, then by title.
+     */
+    public static final Comparator<Category> BY_TIME_DESCENDING =
+            Comparator.comparingDouble(Category::getTotalTimeHours).reversed()
+                    .thenComparing(Category::getActivityTitle);
+
     private String activityTitle;
     private Category parent;
     private Map<String, Category> children; // Key is the child's activity title
+    private final NavigableSet<Category> rankedChildren = new TreeSet<>(BY_TIME_DESCENDING);
     private int numberOfChildren;
     private double totalTimeHours; // Cumulative time spent in this category
+    private int entryCount; // Entries whose activity path ends at this category
 
     public Category(String activityTitle, Category parent) {
         this.activityTitle = activityTitle;
@@ -30,7 +45,12 @@ public class Category {
     }
 
     public void setActivityTitle(String activityTitle) {
+        // The title orders children with equal time, so re-rank this category
+        boolean ranked = parent != null && parent.rankedChildren.remove(this);
         this.activityTitle = activityTitle;
+        if (ranked) {
+            parent.rankedChildren.add(this);
+        }
     }
 
     public Category getParent() {
@@ -53,6 +73,38 @@ public class Category {
         return numberOfChildren;
     }
 
+    /**
+     * Gets the children ordered by time, largest first, as a read-only view that follows later changes.
+     */
+    public NavigableSet<Category> getChildrenByTime() {
+        return Collections.unmodifiableNavigableSet(rankedChildren);
+    }
+
+    /**
+     * Gets up to {@code k} children with the most time, largest first.
+     * Reads only those children from the ranked view, so it does not sort.
+     */
+    public List<Category> getTopChildren(int k) {
+        List<Category> top = new ArrayList<>(Math.min(k, rankedChildren.size()));
+        for (Category child : rankedChildren) {
+            if (top.size() >= k) {
+                break;
+            }
+            top.add(child);
+        }
+        return top;
+    }
+
+    /**
+     * Gets this category's share of its parent's time, in percent (0 for the root or an empty parent).
+     */
+    public double getPercentOfParent() {
+        if (parent == null || parent.totalTimeHours <= 0) {
+            return 0.0;
+        }
+        return totalTimeHours / parent.totalTimeHours * 100.0;
+    }
+
     public double getTotalTimeHours() {
         return totalTimeHours;
     }
@@ -61,10 +113,29 @@ public class Category {
      * Adds time to this category and propagates to parent categories.
      */
     public void addTime(double hours) {
+        if (parent == null) {
+            this.totalTimeHours += hours;
+            return;
+        }
+        // Time orders the parent's ranked children, so move this category to its new place
+        boolean ranked = parent.rankedChildren.remove(this);
         this.totalTimeHours += hours;
-        if (parent != null) {
-            parent.addTime(hours);
+        if (ranked) {
+            parent.rankedChildren.add(this);
         }
+        parent.addTime(hours);
+    }
+
+    /**
+     * Gets the number of entries whose activity path ends at this category,
+     * not counting entries of its children.
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    void addEntryCount(int delta) {
+        entryCount += delta;
     }
 
     /**
@@ -74,11 +145,23 @@ public class Category {
         if (!children.containsKey(childTitle)) {
             Category child = new Category(childTitle, this);
             children.put(childTitle, child);
+            rankedChildren.add(child);
             numberOfChildren = children.size();
         }
         return children.get(childTitle);
     }
 
+    /**
+     * Removes a child category and its subtree.
+     */
+    public void removeChild(String childTitle) {
+        Category child = children.remove(childTitle);
+        if (child != null) {
+            rankedChildren.remove(child);
+            numberOfChildren = children.size();
+        }
+    }
+
     /**
      * Gets the full path from root to this category.
      */
@@ -0,0 +1,142 @@
+package com.journal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Minutes and entry counts per activity for each day, and the lifetime category tree built from them.
+ * The tree is adjusted by the difference between a day's old and new rows whenever the day is written,
+ * so it never needs a scan over the history once the index is checkpointed.
+ */
+class CategoryIndex extends DerivedIndex {
+    private final CategoryManager tree = new CategoryManager();
+    // day -> activity path (tokens joined by single spaces) -> {minutes, entries}
+    private final TreeMap<LocalDate, Map<String, long[]>> dayRows = new TreeMap<>();
+    private final Map<LocalDate, Long> dayStamps = new HashMap<>();
+
+    @Override
+    String getName() {
+        return "categories";
+    }
+
+    @Override
+    synchronized Map<LocalDate, Long> load(DataInputStream in) {
+        clear();
+        if (in != null) {
+            try {
+                read(in);
+            } catch (IOException e) {
+                System.err.println("Error loading category index, rebuilding: " + e.getMessage());
+                clear();
+            }
+        }
+        return new HashMap<>(dayStamps);
+    }
+
+    @Override
+    synchronized void updateDay(LocalDate date, List<JournalEntry> entries, long stamp) {
+        Map<String, long[]> newRows = new HashMap<>();
+        for (JournalEntry entry : entries) {
+            List<String> tokens = CategoryManager.tokenize(entry.getActivityType());
+            if (!tokens.isEmpty()) {
+                long[] row = newRows.computeIfAbsent(String.join(" ", tokens), k -> new long[2]);
+                row[0] += entry.getDurationMinutes();
+                row[1]++;
+            }
+        }
+
+        Map<String, long[]> oldRows = newRows.isEmpty() ? dayRows.remove(date) : dayRows.put(date, newRows);
+        if (newRows.isEmpty()) {
+            dayStamps.remove(date);
+        } else {
+            dayStamps.put(date, stamp);
+        }
+
+        // Only the difference is applied, so unchanged categories keep their nodes
+        Map<String, long[]> delta = new HashMap<>();
+        addRows(delta, newRows, 1);
+        if (oldRows != null) {
+            addRows(delta, oldRows, -1);
+        }
+        applyToTree(delta);
+    }
+
+    private static void addRows(Map<String, long[]> target, Map<String, long[]> rows, int sign) {
+        for (Map.Entry<String, long[]> row : rows.entrySet()) {
+            long[] sum = target.computeIfAbsent(row.getKey(), k -> new long[2]);
+            sum[0] += sign * row.getValue()[0];
+            sum[1] += sign * row.getValue()[1];
+        }
+    }
+
+    private void applyToTree(Map<String, long[]> rows) {
+        for (Map.Entry<String, long[]> row : rows.entrySet()) {
+            tree.addActivity(row.getKey(), row.getValue()[0] / 60.0, (int) row.getValue()[1]);
+        }
+    }
+
+    /**
+     * Gets the root of the lifetime category tree. It is updated in place as days are written,
+     * so it must only be read while synchronized on this index.
+     */
+    synchronized Category getRootCategory() {
+        return tree.getRootCategory();
+    }
+
+    /**
+     * Reads the lifetime category tree while no day can change it.
+     */
+    synchronized <T> T read(Function<Category, T> reader) {
+        return reader.apply(tree.getRootCategory());
+    }
+
+    @Override
+    synchronized void write(DataOutputStream out) throws IOException {
+        out.writeInt(dayRows.size());
+        for (Map.Entry<LocalDate, Map<String, long[]>> day : dayRows.entrySet()) {
+            out.writeLong(day.getKey().toEpochDay());
+            out.writeLong(dayStamps.getOrDefault(day.getKey(), 0L));
+            out.writeInt(day.getValue().size());
+            for (Map.Entry<String, long[]> row : day.getValue().entrySet()) {
+                out.writeUTF(row.getKey());
+                out.writeLong(row.getValue()[0]);
+                out.writeInt((int) row.getValue()[1]);
+            }
+        }
+    }
+
+    /**
+     * Reads the checkpointed rows and builds the tree from them.
+     */
+    private void read(DataInputStream in) throws IOException {
+        Map<String, long[]> totals = new HashMap<>();
+        int days = in.readInt();
+        for (int d = 0; d < days; d++) {
+            LocalDate date = LocalDate.ofEpochDay(in.readLong());
+            dayStamps.put(date, in.readLong());
+            int count = in.readInt();
+            Map<String, long[]> rows = new HashMap<>(count * 2);
+            for (int r = 0; r < count; r++) {
+                String activity = in.readUTF();
+                rows.put(activity, new long[] {in.readLong(), in.readInt()});
+            }
+            dayRows.put(date, rows);
+            addRows(totals, rows, 1);
+        }
+        // Each activity is added to the tree once, with its lifetime totals
+        applyToTree(totals);
+    }
+
+    private void clear() {
+        dayRows.clear();
+        dayStamps.clear();
+        tree.reset();
+    }
+}
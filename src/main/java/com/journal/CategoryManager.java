@@ -24,6 +24,13 @@ public class CategoryManager {
      * Example: "listening to audio book" -> ["listening", "to", "audio", "book"]
      */
     public List<String> tokenizeActivity(String activityType) {
+        return tokenize(activityType);
+    }
+
+    /**
+     * Tokenizes text into lowercase words. Shared by the category tree and the derived indexes.
+     */
+    public static List<String> tokenize(String activityType) {
         if (activityType == null || activityType.trim().isEmpty()) {
             return new ArrayList<>();
         }
@@ -38,24 +45,58 @@ public class CategoryManager {
      * Processes a journal entry and adds it to the category tree.
      */
     public void processEntry(JournalEntry entry) {
-        if (entry == null || entry.getActivityType() == null) {
+        if (entry == null) {
+            return;
+        }
+        addActivity(entry.getActivityType(), entry.getDurationHours(), 1);
+    }
+
+    /**
+     * Takes a previously processed entry out of the category tree,
+     * dropping categories that no longer hold any entries.
+     */
+    public void removeEntry(JournalEntry entry) {
+        if (entry == null) {
+            return;
+        }
+        addActivity(entry.getActivityType(), -entry.getDurationHours(), -1);
+    }
+
+    /**
+     * Adds time and entries to an activity's category, or takes entries out if the count is negative,
+     * dropping categories that no longer hold any entries.
+     */
+    void addActivity(String activityType, double hours, int entries) {
+        List<String> tokens = tokenizeActivity(activityType);
+        if (tokens.isEmpty() || (entries == 0 && hours == 0)) {
             return;
         }
 
-        List<String> tokens = tokenizeActivity(entry.getActivityType());
-        if (tokens.isEmpty()) {
+        if (entries >= 0) {
+            // Navigate/create the category path
+            Category currentCategory = rootCategory;
+            for (String token : tokens) {
+                currentCategory = currentCategory.getOrCreateChild(token);
+            }
+
+            // Add the time to the final category and all its parents
+            currentCategory.addTime(hours);
+            currentCategory.addEntryCount(entries);
             return;
         }
 
-        // Navigate/create the category path
-        Category currentCategory = rootCategory;
-        for (String token : tokens) {
-            currentCategory = currentCategory.getOrCreateChild(token);
+        Category category = findCategoryByPath(tokens);
+        if (category == null || category == rootCategory || category.getEntryCount() == 0) {
+            return;
         }
 
-        // Add the time to the final category and all its parents
-        double duration = entry.getDurationHours();
-        currentCategory.addTime(duration);
+        category.addTime(hours);
+        category.addEntryCount(entries);
+        while (category != rootCategory && category.getEntryCount() <= 0 && category.getNumberOfChildren() == 0) {
+            Category parent = category.getParent();
+            parent.removeChild(category.getActivityTitle());
+            category = parent;
+        }
     }
 
     /**
@@ -67,6 +108,24 @@ public class CategoryManager {
         }
     }
 
+    /**
+     * Adds the time and entries of another category tree, e.g. another journal's, to this one.
+     */
+    public void merge(Category otherRoot) {
+        mergeInto(rootCategory, otherRoot);
+    }
+
+    private void mergeInto(Category target, Category source) {
+        double childHours = 0.0;
+        for (Category child : source.getChildren().values()) {
+            mergeInto(target.getOrCreateChild(child.getActivityTitle()), child);
+            childHours += child.getTotalTimeHours();
+        }
+        // Time of the source's own entries; the children's time already reached the target via them
+        target.addTime(source.getTotalTimeHours() - childHours);
+        target.addEntryCount(source.getEntryCount());
+    }
+
     /**
      * Gets the root category.
      */
@@ -84,7 +143,7 @@ public class CategoryManager {
     }
 
     /**
-     * Recursively collects categories at a specific depth.
+     * Recursively collects categories at a specific depth, walking the children without copying them.
      */
     private void collectCategoriesAtDepth(Category category, int targetDepth, int currentDepth, List<Category> result) {
         if (currentDepth == targetDepth) {
@@ -92,16 +151,49 @@ public class CategoryManager {
             return;
         }
 
-        for (Category child : category.getChildrenList()) {
+        for (Category child : category.getChildren().values()) {
             collectCategoriesAtDepth(child, targetDepth, currentDepth + 1, result);
         }
     }
 
     /**
-     * Gets all main categories (first level categories, children of root).
+     * Gets all main categories (first level categories, children of root), largest first.
      */
     public List<Category> getMainCategories() {
-        return rootCategory.getChildrenList();
+        return new ArrayList<>(rootCategory.getChildrenByTime());
+    }
+
+    /**
+     * Gets up to {@code k} children with the most time of the category at a path
+     * (empty for the main categories), largest first, or an empty list if there is no such category.
+     */
+    public List<Category> getTopCategories(List<String> path, int k) {
+        Category category = findCategoryByPath(path);
+        return category != null ? category.getTopChildren(k) : new ArrayList<>();
+    }
+
+    /**
+     * Gets the subtree below the category at a path in depth-first order, largest children first,
+     * going at most {@code maxDepth} levels down and taking at most {@code topK} children per category.
+     * The category itself is not included. Returns an empty list if there is no such category.
+     */
+    public List<Category> getSubtree(List<String> path, int maxDepth, int topK) {
+        List<Category> result = new ArrayList<>();
+        Category category = findCategoryByPath(path);
+        if (category != null) {
+            collectSubtree(category, maxDepth, topK, result);
+        }
+        return result;
+    }
+
+    private void collectSubtree(Category category, int levelsLeft, int topK, List<Category> result) {
+        if (levelsLeft <= 0) {
+            return;
+        }
+        for (Category child : category.getTopChildren(topK)) {
+            result.add(child);
+            collectSubtree(child, levelsLeft - 1, topK, result);
+        }
     }
 
     /**
@@ -0,0 +1,358 @@
+package com.journal;
+
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lazy tree model over a category tree for drill-down views.
+ * Children and their time totals are read from the source only when a category is expanded,
+ * so very wide trees show only what is opened. {@link #refresh()} re-reads the categories
+ * loaded so far and fires events for the nodes that changed, keeping the node objects
+ * (and so the tree's expansion state) of categories that still exist.
+ */
+public class CategoryTreeModel implements TreeModel {
+
+    /**
+     * A category as read from the source: its title, time, share of its parent and number of children.
+     */
+    public static class Summary {
+        private final String title;
+        private final double hours;
+        private final double percentOfParent;
+        private final int childCount;
+
+        public Summary(String title, double hours, double percentOfParent, int childCount) {
+            this.title = title;
+            this.hours = hours;
+            this.percentOfParent = percentOfParent;
+            this.childCount = childCount;
+        }
+    }
+
+    /**
+     * Reads the children of categories, largest first.
+     */
+    public interface Source {
+        /**
+         * Reads the children of the categories at the given paths (lists of titles from the root).
+         * A path without a category may be left out or mapped to an empty list.
+         */
+        Map<List<String>, List<Summary>> readChildren(Collection<List<String>> paths);
+    }
+
+    /**
+     * A node of the tree. Children are null until the node is expanded.
+     */
+    public static class Node {
+        private final Node parent;
+        private final String title;
+        private final List<String> path;
+        private double hours;
+        private double percentOfParent;
+        private int childCount;
+        private List<Node> children;
+        private boolean removed;
+
+        Node(Node parent, String title, List<String> path) {
+            this.parent = parent;
+            this.title = title;
+            this.path = path;
+        }
+
+        public String getTitle() { return title; }
+        public double getHours() { return hours; }
+        public double getPercentOfParent() { return percentOfParent; }
+
+        /** The titles from the root to this category; empty for the root. */
+        public List<String> getPath() { return path; }
+
+        /**
+         * Takes the values of a fresh summary, returning whether any of them changed.
+         */
+        boolean update(Summary summary) {
+            boolean changed = hours != summary.hours || percentOfParent != summary.percentOfParent
+                    || (childCount == 0) != (summary.childCount == 0);
+            hours = summary.hours;
+            percentOfParent = summary.percentOfParent;
+            childCount = summary.childCount;
+            return changed;
+        }
+
+        TreePath getTreePath() {
+            return parent == null ? new TreePath(this) : parent.getTreePath().pathByAddingChild(this);
+        }
+
+        @Override
+        public String toString() {
+            if (parent == null) {
+                return String.format("%s  %.2f hours", title, hours);
+            }
+            return String.format("%s  %.2f hours (%.1f%%)", title, hours, percentOfParent);
+        }
+    }
+
+    private final EventListenerList listeners = new EventListenerList();
+    private final Node root;
+    private final Source source;
+
+    /**
+     * @param rootTitle Title shown for the root, which holds the total time of its children
+     */
+    public CategoryTreeModel(String rootTitle, Source source) {
+        this.root = new Node(null, rootTitle, Collections.emptyList());
+        this.source = source;
+        refresh();
+    }
+
+    /**
+     * Reads the children of the categories at the given paths from a category tree.
+     * Use it inside a reader that holds the tree's lock, e.g. {@link AnalysisService#readCategoryTree}.
+     */
+    public static Map<List<String>, List<Summary>> readChildren(Category root, Collection<List<String>> paths) {
+        Map<List<String>, List<Summary>> result = new HashMap<>();
+        for (List<String> path : paths) {
+            Category category = root;
+            for (int i = 0; i < path.size() && category != null; i++) {
+                category = category.getChildren().get(path.get(i));
+            }
+            if (category == null) {
+                continue;
+            }
+            List<Summary> children = new ArrayList<>(category.getNumberOfChildren());
+            for (Category child : category.getChildrenByTime()) {
+                children.add(new Summary(child.getActivityTitle(), child.getTotalTimeHours(),
+                        child.getPercentOfParent(), child.getNumberOfChildren()));
+            }
+            result.put(path, children);
+        }
+        return result;
+    }
+
+    @Override
+    public Object getRoot() {
+        return root;
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        return loadChildren((Node) parent).get(index);
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        return loadChildren((Node) parent).size();
+    }
+
+    @Override
+    public boolean isLeaf(Object node) {
+        Node treeNode = (Node) node;
+        return treeNode != root && treeNode.childCount == 0;
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        List<Node> children = ((Node) parent).children;
+        return children != null ? children.indexOf(child) : -1;
+    }
+
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        // Categories are not edited through the tree
+    }
+
+    /**
+     * Loads the children of a node on first use, i.e. when it is expanded.
+     */
+    private List<Node> loadChildren(Node node) {
+        if (node.children == null) {
+            List<Summary> summaries = source.readChildren(List.of(node.path)).get(node.path);
+            node.children = new ArrayList<>();
+            if (summaries != null) {
+                for (Summary summary : summaries) {
+                    node.children.add(newChild(node, summary));
+                }
+            }
+        }
+        return node.children;
+    }
+
+    private static Node newChild(Node parent, Summary summary) {
+        List<String> path = new ArrayList<>(parent.path);
+        path.add(summary.title);
+        Node child = new Node(parent, summary.title, Collections.unmodifiableList(path));
+        child.update(summary);
+        return child;
+    }
+
+    /**
+     * Re-reads the children of every loaded node in one pass over the source and fires
+     * events only for the nodes that were added, removed or changed. When the ranking
+     * of a node's remaining children changed, its children are reported as restructured.
+     */
+    public void refresh() {
+        // The root is always read, for its total
+        if (root.children == null) {
+            root.children = new ArrayList<>();
+        }
+        List<Node> loaded = new ArrayList<>();
+        collectLoaded(root, loaded);
+        List<List<String>> paths = new ArrayList<>(loaded.size());
+        for (Node node : loaded) {
+            paths.add(node.path);
+        }
+        Map<List<String>, List<Summary>> fresh = source.readChildren(paths);
+
+        double total = 0.0;
+        for (Summary summary : fresh.getOrDefault(root.path, Collections.emptyList())) {
+            total += summary.hours;
+        }
+        if (root.hours != total) {
+            root.hours = total;
+            fireTreeNodesChanged(new TreeModelEvent(this, new TreePath(root)));
+        }
+        for (Node node : loaded) {
+            if (isAttached(node)) {
+                refreshChildren(node, fresh.getOrDefault(node.path, Collections.emptyList()));
+            }
+        }
+    }
+
+    private void collectLoaded(Node node, List<Node> loaded) {
+        if (node.children == null) {
+            return;
+        }
+        loaded.add(node);
+        for (Node child : node.children) {
+            collectLoaded(child, loaded);
+        }
+    }
+
+    /**
+     * Tells whether a node is still in the tree, i.e. no refresh dropped it or one of its ancestors.
+     */
+    boolean isAttached(Node node) {
+        for (Node current = node; current != null; current = current.parent) {
+            if (current.removed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void refreshChildren(Node node, List<Summary> summaries) {
+        TreePath parentPath = node.getTreePath();
+        Map<String, Summary> byTitle = new HashMap<>();
+        for (Summary summary : summaries) {
+            byTitle.put(summary.title, summary);
+        }
+
+        // Removed children first, reported with their old indices
+        List<Integer> removedIndices = new ArrayList<>();
+        List<Node> removedNodes = new ArrayList<>();
+        for (int i = 0; i < node.children.size(); i++) {
+            Node child = node.children.get(i);
+            if (!byTitle.containsKey(child.title)) {
+                child.removed = true;
+                removedIndices.add(i);
+                removedNodes.add(child);
+            }
+        }
+        if (!removedNodes.isEmpty()) {
+            node.children.removeAll(new HashSet<>(removedNodes));
+            fireTreeNodesRemoved(new TreeModelEvent(this, parentPath, toArray(removedIndices), removedNodes.toArray()));
+        }
+
+        // Then the new ranking, reusing the nodes of the remaining children
+        Map<String, Node> existing = new HashMap<>();
+        for (Node child : node.children) {
+            existing.put(child.title, child);
+        }
+        List<Node> ranked = new ArrayList<>(summaries.size());
+        List<Node> remaining = new ArrayList<>(node.children.size());
+        List<Integer> changedIndices = new ArrayList<>();
+        List<Node> changedNodes = new ArrayList<>();
+        for (Summary summary : summaries) {
+            Node child = existing.get(summary.title);
+            if (child == null) {
+                ranked.add(newChild(node, summary));
+                continue;
+            }
+            if (child.update(summary)) {
+                changedIndices.add(ranked.size());
+                changedNodes.add(child);
+            }
+            ranked.add(child);
+            remaining.add(child);
+        }
+
+        if (!remaining.equals(node.children)) {
+            node.children = ranked;
+            fireTreeStructureChanged(new TreeModelEvent(this, parentPath));
+            return;
+        }
+        node.children = ranked;
+
+        List<Integer> insertedIndices = new ArrayList<>();
+        List<Node> insertedNodes = new ArrayList<>();
+        for (int i = 0; i < ranked.size(); i++) {
+            if (!existing.containsKey(ranked.get(i).title)) {
+                insertedIndices.add(i);
+                insertedNodes.add(ranked.get(i));
+            }
+        }
+        if (!insertedNodes.isEmpty()) {
+            fireTreeNodesInserted(new TreeModelEvent(this, parentPath, toArray(insertedIndices), insertedNodes.toArray()));
+        }
+        if (!changedNodes.isEmpty()) {
+            fireTreeNodesChanged(new TreeModelEvent(this, parentPath, toArray(changedIndices), changedNodes.toArray()));
+        }
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public void addTreeModelListener(TreeModelListener listener) {
+        listeners.add(TreeModelListener.class, listener);
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener listener) {
+        listeners.remove(TreeModelListener.class, listener);
+    }
+
+    private void fireTreeNodesChanged(TreeModelEvent event) {
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesChanged(event);
+        }
+    }
+
+    private void fireTreeNodesInserted(TreeModelEvent event) {
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesInserted(event);
+        }
+    }
+
+    private void fireTreeNodesRemoved(TreeModelEvent event) {
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesRemoved(event);
+        }
+    }
+
+    private void fireTreeStructureChanged(TreeModelEvent event) {
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeStructureChanged(event);
+        }
+    }
+}
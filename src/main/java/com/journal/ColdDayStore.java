@@ -0,0 +1,134 @@
+package com.journal;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Second cache tier below {@link DayCache} for older days.
+ * Days are kept in their encoded (compact JSON) form in direct byte buffers outside the Java heap,
+ * and decoded on demand, so long history scans avoid disk without growing the old generation.
+ * The total encoded size is bounded; least recently used days are dropped first.
+ * Being only a cache, the tier drops a day when direct memory runs out instead of failing the write
+ * or read that evicted it.
+ */
+public class ColdDayStore {
+    // Default budgets take at most this share of the JVM's direct memory limit
+    private static final int DIRECT_MEMORY_SHARE_DIVISOR = 4;
+
+    private final LinkedHashMap<LocalDate, ByteBuffer> days = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxBytes;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private boolean allocationFailed;
+
+    public ColdDayStore(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Caps a default budget at a quarter of the JVM's direct memory limit, which is the maximum heap size
+     * unless {@code -XX:MaxDirectMemorySize} is set, so a small heap does not get a cold tier it cannot allocate.
+     */
+    public static long capToDirectMemory(long maxBytes) {
+        long limit = Runtime.getRuntime().maxMemory();
+        try {
+            HotSpotDiagnosticMXBean diagnostics = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            long configured = Long.parseLong(diagnostics.getVMOption("MaxDirectMemorySize").getValue());
+            if (configured > 0) {
+                limit = configured;
+            }
+        } catch (RuntimeException e) {
+            // Not a HotSpot JVM; its limit defaults to the heap size as well
+        }
+        return Math.min(maxBytes, limit / DIRECT_MEMORY_SHARE_DIVISOR);
+    }
+
+    /**
+     * Changes the size limit. A limit of 0 disables the tier.
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evictOverLimit();
+    }
+
+    /**
+     * Gets a copy of the encoded bytes of a day, or null if it is not stored.
+     */
+    public synchronized byte[] get(LocalDate date) {
+        ByteBuffer buffer = days.get(date);
+        if (buffer == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        byte[] encoded = new byte[buffer.capacity()];
+        buffer.duplicate().clear().get(encoded);
+        return encoded;
+    }
+
+    /**
+     * Stores the encoded bytes of a day off-heap, replacing any previous version.
+     */
+    public synchronized void put(LocalDate date, byte[] encoded) {
+        if (encoded.length > maxBytes) {
+            invalidate(date);
+            return;
+        }
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.allocateDirect(encoded.length);
+        } catch (OutOfMemoryError e) {
+            // Direct memory is exhausted by others; the day is read from disk again when needed
+            if (!allocationFailed) {
+                allocationFailed = true;
+                System.err.println("Cold day store out of direct memory, dropping days: " + e.getMessage());
+            }
+            invalidate(date);
+            return;
+        }
+        buffer.put(encoded).flip();
+        ByteBuffer previous = days.put(date, buffer);
+        if (previous != null) {
+            bytes -= previous.capacity();
+        }
+        bytes += encoded.length;
+        evictOverLimit();
+    }
+
+    public synchronized boolean contains(LocalDate date) {
+        return days.containsKey(date);
+    }
+
+    public synchronized void invalidate(LocalDate date) {
+        ByteBuffer previous = days.remove(date);
+        if (previous != null) {
+            bytes -= previous.capacity();
+        }
+    }
+
+    public synchronized void clear() {
+        days.clear();
+        bytes = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Cold store: %d days (%d KB off-heap) | Hits: %d | Misses: %d",
+                days.size(), bytes / 1024, hits, misses);
+    }
+
+    private void evictOverLimit() {
+        Iterator<Map.Entry<LocalDate, ByteBuffer>> eldest = days.entrySet().iterator();
+        while (eldest.hasNext() && bytes > maxBytes) {
+            bytes -= eldest.next().getValue().capacity();
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.journal;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU cache of decoded day entries.
+ * Days are evicted, least recently used first, once either the number of cached days
+ * or their estimated heap size exceeds the configured limits.
+ */
+public class DayCache {
+    private static final long ENTRY_OVERHEAD_BYTES = 200;
+
+    /**
+     * Hit/miss statistics of the cache.
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int cachedDays;
+        private final long estimatedBytes;
+
+        Stats(long hits, long misses, long evictions, int cachedDays, long estimatedBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.cachedDays = cachedDays;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public int getCachedDays() { return cachedDays; }
+        public long getEstimatedBytes() { return estimatedBytes; }
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests > 0 ? (double) hits / requests : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Day cache: %d days (~%d KB) | Hits: %d | Misses: %d | Hit rate: %.1f%% | Evictions: %d",
+                    cachedDays, estimatedBytes / 1024, hits, misses, getHitRate() * 100.0, evictions);
+        }
+    }
+
+    /**
+     * Notified about days evicted to make room, e.g. to move them to a colder tier.
+     * Called under the cache lock, so an evicted day cannot reach the colder tier
+     * after a newer version of it was put back into the cache.
+     */
+    public interface EvictionListener {
+        void onEvicted(LocalDate date, List<JournalEntry> entries);
+    }
+
+    private static class CachedDay {
+        private final List<JournalEntry> entries;
+        private final long bytes;
+
+        CachedDay(List<JournalEntry> entries, long bytes) {
+            this.entries = entries;
+            this.bytes = bytes;
+        }
+    }
+
+    private final LinkedHashMap<LocalDate, CachedDay> days = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxDays;
+    private long maxBytes;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private EvictionListener evictionListener;
+
+    public DayCache(int maxDays, long maxBytes) {
+        this.maxDays = maxDays;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Changes the limits, evicting days immediately if the cache is now over them.
+     * A limit of 0 disables caching.
+     */
+    public synchronized void setLimits(int maxDays, long maxBytes) {
+        this.maxDays = maxDays;
+        this.maxBytes = maxBytes;
+        evictOverLimit();
+    }
+
+    public synchronized int getMaxDays() {
+        return maxDays;
+    }
+
+    public synchronized void setEvictionListener(EvictionListener evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Gets the cached entries of a day, or null on a miss. The returned list is unmodifiable.
+     */
+    public synchronized List<JournalEntry> get(LocalDate date) {
+        CachedDay day = days.get(date);
+        if (day == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return day.entries;
+    }
+
+    /**
+     * Gets the cached entries of a day without counting a hit or miss, or null if not cached.
+     * Used by history scans so they do not distort the statistics.
+     */
+    public synchronized List<JournalEntry> peek(LocalDate date) {
+        CachedDay day = days.get(date);
+        return day != null ? day.entries : null;
+    }
+
+    /**
+     * Caches the entries of a day, replacing any previous version.
+     */
+    public synchronized void put(LocalDate date, List<JournalEntry> entries) {
+        if (maxDays <= 0 || maxBytes <= 0) {
+            return;
+        }
+        CachedDay day = new CachedDay(List.copyOf(entries), estimateBytes(entries));
+        CachedDay previous = days.put(date, day);
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+        bytes += day.bytes;
+        evictOverLimit();
+    }
+
+    /**
+     * Removes a day from the cache.
+     */
+    public synchronized void invalidate(LocalDate date) {
+        CachedDay previous = days.remove(date);
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+    }
+
+    public synchronized void clear() {
+        days.clear();
+        bytes = 0;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, days.size(), bytes);
+    }
+
+    private void evictOverLimit() {
+        Iterator<Map.Entry<LocalDate, CachedDay>> eldest = days.entrySet().iterator();
+        while (eldest.hasNext() && (days.size() > maxDays || bytes > maxBytes)) {
+            Map.Entry<LocalDate, CachedDay> day = eldest.next();
+            eldest.remove();
+            bytes -= day.getValue().bytes;
+            evictions++;
+            if (evictionListener != null) {
+                evictionListener.onEvicted(day.getKey(), day.getValue().entries);
+            }
+        }
+    }
+
+    /**
+     * Roughly estimates the heap used by a day's decoded entries.
+     */
+    static long estimateBytes(List<JournalEntry> entries) {
+        long total = 0;
+        for (JournalEntry entry : entries) {
+            total += ENTRY_OVERHEAD_BYTES;
+            total += 2L * (entry.getActivityType() != null ? entry.getActivityType().length() : 0);
+            total += 2L * entry.getNote().length();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,38 @@
+package com.journal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class for data derived from the day files (rollups, search index, ...).
+ * JournalManager opens each index once, re-indexes days whose data file changed
+ * since the index was checkpointed, and updates it whenever it writes a day.
+ * Indexes are persisted together as sections of the {@link StateCheckpoint}.
+ */
+abstract class DerivedIndex {
+
+    /**
+     * Gets the name of the index's section in the state checkpoint.
+     */
+    abstract String getName();
+
+    /**
+     * Loads the checkpointed state, or starts empty if there is none (null) or it is unreadable.
+     * Returns the data file stamp each indexed day was built from.
+     */
+    abstract Map<LocalDate, Long> load(DataInputStream in);
+
+    /**
+     * Replaces the indexed data of a day. An empty list removes the day.
+     */
+    abstract void updateDay(LocalDate date, List<JournalEntry> entries, long stamp);
+
+    /**
+     * Writes the current state, including the day stamps, for the state checkpoint.
+     */
+    abstract void write(DataOutputStream out) throws IOException;
+}
@@ -0,0 +1,140 @@
+package com.journal;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates journal entries day by day in chronological or reverse order.
+ * Only the current day is held in memory, and the position of the next entry
+ * can be saved and used later to resume iteration.
+ */
+public class EntryCursor implements Iterator<JournalEntry> {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /**
+     * A resumable position: a date and the index of an entry within that date's file.
+     */
+    public static final class Position {
+        private final LocalDate date;
+        private final int index;
+
+        public Position(LocalDate date, int index) {
+            this.date = date;
+            this.index = index;
+        }
+
+        public LocalDate getDate() { return date; }
+        public int getIndex() { return index; }
+
+        /**
+         * Parses a position written by {@link #toString()}, e.g. {@code 2024-01-15#3}.
+         */
+        public static Position parse(String text) {
+            int separator = text.indexOf('#');
+            if (separator < 0) {
+                return new Position(LocalDate.parse(text, DATE_FORMATTER), 0);
+            }
+            return new Position(LocalDate.parse(text.substring(0, separator), DATE_FORMATTER),
+                    Integer.parseInt(text.substring(separator + 1)));
+        }
+
+        @Override
+        public String toString() {
+            return date.format(DATE_FORMATTER) + "#" + index;
+        }
+    }
+
+    private final JournalManager journalManager;
+    private final JournalSnapshot snapshot;
+    private final List<LocalDate> dates;
+    private final boolean ascending;
+    private final boolean lazy;
+    private int dateIndex;
+    private List<JournalEntry> dayEntries;
+    private int entryIndex;
+
+    /**
+     * @param dates Dates to visit, in chronological order
+     * @param start Position to start at, or null to start at the first (or last, if descending) entry
+     */
+    EntryCursor(JournalManager journalManager, List<LocalDate> dates, Position start, boolean ascending) {
+        this(journalManager, null, dates, start, ascending, false);
+    }
+
+    /**
+     * @param snapshot If not null, days are read as of this snapshot
+     * @param lazy If true, entries are returned as read-only {@link LazyJournalEntry} views
+     */
+    EntryCursor(JournalManager journalManager, JournalSnapshot snapshot, List<LocalDate> dates, Position start,
+                boolean ascending, boolean lazy) {
+        this.journalManager = journalManager;
+        this.snapshot = snapshot;
+        this.dates = dates;
+        this.ascending = ascending;
+        this.lazy = lazy;
+        this.dateIndex = ascending ? 0 : dates.size() - 1;
+
+        if (start != null) {
+            while (dateIndex >= 0 && dateIndex < dates.size() && isBeforeStart(dates.get(dateIndex), start.getDate())) {
+                dateIndex += ascending ? 1 : -1;
+            }
+            if (dateIndex >= 0 && dateIndex < dates.size() && dates.get(dateIndex).equals(start.getDate())) {
+                loadDay();
+                entryIndex = ascending ? start.getIndex() : Math.min(start.getIndex(), dayEntries.size() - 1);
+            }
+        }
+    }
+
+    private boolean isBeforeStart(LocalDate date, LocalDate startDate) {
+        return ascending ? date.isBefore(startDate) : date.isAfter(startDate);
+    }
+
+    private void loadDay() {
+        LocalDate date = dates.get(dateIndex);
+        dayEntries = snapshot != null
+                ? snapshot.loadEntriesForScan(date, lazy)
+                : journalManager.loadEntriesForScan(date, lazy);
+        entryIndex = ascending ? 0 : dayEntries.size() - 1;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            if (dayEntries != null && entryIndex >= 0 && entryIndex < dayEntries.size()) {
+                return true;
+            }
+            if (dayEntries != null) {
+                dateIndex += ascending ? 1 : -1;
+            }
+            if (dateIndex < 0 || dateIndex >= dates.size()) {
+                dayEntries = null;
+                return false;
+            }
+            loadDay();
+        }
+    }
+
+    @Override
+    public JournalEntry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        JournalEntry entry = dayEntries.get(entryIndex);
+        entryIndex += ascending ? 1 : -1;
+        return entry;
+    }
+
+    /**
+     * Gets the position of the next entry, or null if the cursor is exhausted.
+     * Opening a cursor at this position continues exactly where this one stopped.
+     */
+    public Position getPosition() {
+        if (!hasNext()) {
+            return null;
+        }
+        return new Position(dates.get(dateIndex), entryIndex);
+    }
+}
@@ -0,0 +1,171 @@
+package com.journal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maps entry ids to the date and position of the entry within its day.
+ * Entries written before ids existed are tracked with id 0, so the days
+ * still needing ids can be found without rereading them.
+ */
+public class EntryIdIndex extends DerivedIndex {
+    private static final int POSITION_BITS = 20;
+
+    /**
+     * Where an entry is stored.
+     */
+    public static class Location {
+        private final LocalDate date;
+        private final int position;
+
+        Location(LocalDate date, int position) {
+            this.date = date;
+            this.position = position;
+        }
+
+        public LocalDate getDate() { return date; }
+        public int getPosition() { return position; }
+    }
+
+    // id -> (epoch day << POSITION_BITS | position)
+    private final Map<Long, Long> locations = new HashMap<>();
+    private final TreeMap<LocalDate, long[]> dayIds = new TreeMap<>();
+    private final Map<LocalDate, Long> dayStamps = new HashMap<>();
+    @Override
+    String getName() {
+        return "ids";
+    }
+
+    @Override
+    synchronized Map<LocalDate, Long> load(DataInputStream in) {
+        clear();
+        if (in != null) {
+            try {
+                read(in);
+            } catch (IOException e) {
+                System.err.println("Error loading entry id index, rebuilding: " + e.getMessage());
+                clear();
+            }
+        }
+        return new HashMap<>(dayStamps);
+    }
+
+    @Override
+    synchronized void updateDay(LocalDate date, List<JournalEntry> entries, long stamp) {
+        removeDay(date);
+        if (entries.isEmpty()) {
+            dayStamps.remove(date);
+        } else {
+            long[] ids = new long[entries.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = entries.get(i).getId();
+            }
+            addDay(date, ids);
+            dayStamps.put(date, stamp);
+        }
+    }
+
+    private void addDay(LocalDate date, long[] ids) {
+        dayIds.put(date, ids);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != 0) {
+                locations.put(ids[i], date.toEpochDay() << POSITION_BITS | i);
+            }
+        }
+    }
+
+    private void removeDay(LocalDate date) {
+        long[] ids = dayIds.remove(date);
+        if (ids == null) {
+            return;
+        }
+        long epochDay = date.toEpochDay();
+        for (long id : ids) {
+            Long location = locations.get(id);
+            if (location != null && location >> POSITION_BITS == epochDay) {
+                locations.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Finds where an entry is stored, or returns null if the id is unknown.
+     */
+    public synchronized Location find(long id) {
+        Long location = locations.get(id);
+        if (location == null) {
+            return null;
+        }
+        return new Location(LocalDate.ofEpochDay(location >> POSITION_BITS),
+                (int) (location & ((1 << POSITION_BITS) - 1)));
+    }
+
+    /**
+     * Gets the highest id stored, or 0 if there is none.
+     */
+    synchronized long getMaxId() {
+        long max = 0;
+        for (long id : locations.keySet()) {
+            max = Math.max(max, id);
+        }
+        return max;
+    }
+
+    /**
+     * Gets the days that still hold entries without an id.
+     */
+    synchronized List<LocalDate> getDaysMissingIds() {
+        List<LocalDate> dates = new ArrayList<>();
+        for (Map.Entry<LocalDate, long[]> day : dayIds.entrySet()) {
+            for (long id : day.getValue()) {
+                if (id == 0) {
+                    dates.add(day.getKey());
+                    break;
+                }
+            }
+        }
+        return dates;
+    }
+
+    @Override
+    synchronized void write(DataOutputStream out) throws IOException {
+        out.writeInt(dayIds.size());
+        for (Map.Entry<LocalDate, long[]> day : dayIds.entrySet()) {
+            out.writeLong(day.getKey().toEpochDay());
+            out.writeLong(dayStamps.getOrDefault(day.getKey(), 0L));
+            out.writeInt(day.getValue().length);
+            for (long id : day.getValue()) {
+                out.writeLong(id);
+            }
+        }
+    }
+
+    /**
+     * Reads the checkpointed index.
+     */
+    private void read(DataInputStream in) throws IOException {
+        int days = in.readInt();
+        for (int d = 0; d < days; d++) {
+            LocalDate date = LocalDate.ofEpochDay(in.readLong());
+            dayStamps.put(date, in.readLong());
+            long[] ids = new long[in.readInt()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = in.readLong();
+            }
+            addDay(date, ids);
+        }
+    }
+
+    private void clear() {
+        locations.clear();
+        dayIds.clear();
+        dayStamps.clear();
+    }
+}
@@ -1,5 +1,10 @@
 package com.journal;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -39,6 +44,13 @@ public class JournalApp {
                     viewDateEntries();
                     break;
                 case "4":
+                    importEntries();
+                    break;
+                case "5":
+                    exportData();
+                    break;
+                case "6":
+                    journalManager.checkpoint();
                     System.out.println("Goodbye!");
                     return;
                 default:
@@ -52,7 +64,9 @@ public class JournalApp {
         System.out.println("1. Add Activity");
         System.out.println("2. View Today's Entries");
         System.out.println("3. View Entries for Specific Date");
-        System.out.println("4. Exit");
+        System.out.println("4. Import Entries from File");
+        System.out.println("5. Export Data to File");
+        System.out.println("6. Exit");
         System.out.print("Choose an option: ");
     }
 
@@ -103,6 +117,103 @@ public class JournalApp {
         }
     }
 
+    private void importEntries() {
+        System.out.println("\n--- Import Entries ---");
+        System.out.print("Enter file path (.csv, .tsv or .jsonl): ");
+        String pathStr = scanner.nextLine().trim();
+        Path path = Paths.get(pathStr);
+        if (pathStr.isEmpty() || !Files.isRegularFile(path)) {
+            System.out.println("Error: File not found.\n");
+            return;
+        }
+
+        JournalImporter importer = new JournalImporter(journalManager);
+        System.out.print("Date/time pattern (press Enter for yyyy-MM-dd HH:mm or ISO format): ");
+        String pattern = scanner.nextLine().trim();
+        if (!pattern.isEmpty()) {
+            try {
+                importer.setDateTimePatterns(List.of(pattern));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Error: Invalid pattern: " + e.getMessage() + "\n");
+                return;
+            }
+        }
+        importer.setSkipCollisions(getBooleanInput("Skip entries that overlap existing activities? (y/n): "));
+
+        try {
+            JournalImporter.ImportResult result = importer.importFile(path,
+                    progress -> System.out.print("\rImporting... " + progress.getRowsRead() + " rows read"));
+            System.out.println("\n\n✓ Import finished.");
+            System.out.println(result + "\n");
+        } catch (Exception e) {
+            System.out.println("\nError importing entries: " + e.getMessage() + "\n");
+        }
+    }
+
+    private void exportData() {
+        System.out.println("\n--- Export Data ---");
+        System.out.print("What to export (entries, daily, weekly, categories): ");
+        JournalExporter.Kind kind;
+        try {
+            kind = JournalExporter.Kind.fromName(scanner.nextLine());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: Unknown export type.\n");
+            return;
+        }
+
+        System.out.print("Enter output file path (.csv, .tsv or .jsonl): ");
+        String pathStr = scanner.nextLine().trim();
+        if (pathStr.isEmpty()) {
+            System.out.println("Error: Output path cannot be empty.\n");
+            return;
+        }
+
+        LocalDate from = getOptionalDateInput("From date (yyyy-MM-dd, press Enter for all history): ");
+        LocalDate to = getOptionalDateInput("To date (yyyy-MM-dd, press Enter for all history): ");
+
+        try {
+            long rows = export(kind, Paths.get(pathStr), from, to);
+            System.out.println("\n✓ Exported " + rows + " rows to " + pathStr + "\n");
+        } catch (Exception e) {
+            System.out.println("Error exporting data: " + e.getMessage() + "\n");
+        }
+    }
+
+    private long export(JournalExporter.Kind kind, Path path, LocalDate from, LocalDate to) throws IOException {
+        AnalysisService analysisService = new AnalysisService(journalManager, new CategoryManager());
+        return new JournalExporter(journalManager, analysisService).exportToFile(kind, path, from, to);
+    }
+
+    /**
+     * Asks for a date until a valid one or nothing (for all history, returned as null) is entered.
+     */
+    private LocalDate getOptionalDateInput(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            try {
+                return parseOptionalDate(scanner.nextLine());
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Parses a yyyy-MM-dd date, or returns null for blank input.
+     * @throws IllegalArgumentException if the input is not a valid date
+     */
+    private static LocalDate parseOptionalDate(String input) {
+        String trimmed = input.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(trimmed, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date '" + trimmed + "'. Please use yyyy-MM-dd (e.g., 2024-01-15)");
+        }
+    }
+
     private LocalDateTime getDateTimeInput(String prompt) {
         while (true) {
             System.out.print(prompt);
@@ -171,8 +282,49 @@ public class JournalApp {
         System.out.println();
     }
 
+    /**
+     * Runs the interactive menu, or a single non-interactive export when called as
+     * {@code export <entries|daily|weekly|categories> <file> [from] [to]}.
+     */
     public static void main(String[] args) {
         JournalApp app = new JournalApp();
+        if (args.length >= 2 && args[0].equals("export")) {
+            try {
+                JournalExporter.Kind kind = JournalExporter.Kind.fromName(args[1]);
+                Path path = Paths.get(args.length >= 3 ? args[2] : args[1] + ".csv");
+                LocalDate from = args.length >= 4 ? parseOptionalDate(args[3]) : null;
+                LocalDate to = args.length >= 5 ? parseOptionalDate(args[4]) : null;
+                System.out.println("Exported " + app.export(kind, path, from, to) + " rows to " + path);
+            } catch (Exception e) {
+                System.err.println("Error exporting data: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("serve")) {
+            try {
+                int port = args.length >= 2 ? Integer.parseInt(args[1]) : 8080;
+                JournalServer server = new JournalServer(app.journalManager,
+                        new AnalysisService(app.journalManager, new CategoryManager()));
+                server.start(port);
+                Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+                System.out.println("Journal server listening on port " + server.getPort());
+            } catch (Exception e) {
+                System.err.println("Error starting server: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("compact")) {
+            try {
+                System.out.println("Compacted " + app.journalManager.compactClosedMonths() + " months into segment files");
+                app.journalManager.checkpoint();
+            } catch (IOException e) {
+                System.err.println("Error compacting data: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
         app.run();
     }
 }
@@ -0,0 +1,148 @@
+package com.journal;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A change to the journal data, published by {@link JournalManager} to its change listeners.
+ * Entry changes carry the entry as it is now and, for updates, as it was before,
+ * so listeners can adjust their state without rereading the affected days.
+ */
+public class JournalChange {
+    public enum Type {
+        /** An entry was saved. */
+        ENTRY_ADDED,
+        /** An entry was replaced, possibly moving it to another date. */
+        ENTRY_UPDATED,
+        /** An entry was deleted. */
+        ENTRY_REMOVED,
+        /** The stored entries of a day were rewritten. */
+        DAY_CHANGED
+    }
+
+    private final Type type;
+    private final LocalDate date;
+    private final JournalEntry entry;
+    private final JournalEntry previousEntry;
+    private final long version;
+
+    private JournalChange(Type type, LocalDate date, JournalEntry entry, JournalEntry previousEntry, long version) {
+        this.type = type;
+        this.date = date;
+        this.entry = entry;
+        this.previousEntry = previousEntry;
+        this.version = version;
+    }
+
+    static JournalChange entryAdded(JournalEntry entry, long version) {
+        return new JournalChange(Type.ENTRY_ADDED, dateOf(entry), entry, null, version);
+    }
+
+    static JournalChange entryUpdated(JournalEntry previousEntry, JournalEntry entry, long version) {
+        return new JournalChange(Type.ENTRY_UPDATED, dateOf(entry), entry, previousEntry, version);
+    }
+
+    static JournalChange entryRemoved(JournalEntry entry, long version) {
+        return new JournalChange(Type.ENTRY_REMOVED, dateOf(entry), entry, null, version);
+    }
+
+    static JournalChange dayChanged(LocalDate date, long version) {
+        return new JournalChange(Type.DAY_CHANGED, date, null, null, version);
+    }
+
+    private static LocalDate dateOf(JournalEntry entry) {
+        return entry.getStartTime().toLocalDate();
+    }
+
+    public Type getType() { return type; }
+
+    /** The date holding the entry now, or the removed entry's date, or the changed day. */
+    public LocalDate getDate() { return date; }
+
+    /** The entry as saved, or as it was before it was removed. Null for day changes. */
+    public JournalEntry getEntry() { return entry; }
+
+    /** The entry before an update. Null for other changes. */
+    public JournalEntry getPreviousEntry() { return previousEntry; }
+
+    /** The date holding the entry before an update. Null for other changes. */
+    public LocalDate getPreviousDate() {
+        return previousEntry != null ? dateOf(previousEntry) : null;
+    }
+
+    /**
+     * The data version ({@link JournalManager#getDataVersion()}) written by this change.
+     * State built from a scan at some version already includes the changes up to that version.
+     */
+    public long getVersion() { return version; }
+
+    public boolean isEntryChange() {
+        return type != Type.DAY_CHANGED;
+    }
+
+    /**
+     * Coalesces a batch of changes: several changes to the same entry become one
+     * (an entry added and removed in the same batch disappears), and each day is reported once.
+     * Entry changes come first, in the order of their first change, followed by the days in date order.
+     */
+    static List<JournalChange> coalesce(List<JournalChange> changes) {
+        Map<Long, JournalChange> entryChanges = new LinkedHashMap<>();
+        TreeMap<LocalDate, Long> days = new TreeMap<>();
+        for (JournalChange change : changes) {
+            if (!change.isEntryChange()) {
+                days.merge(change.date, change.version, Math::max);
+                continue;
+            }
+            long id = change.entry.getId();
+            JournalChange earlier = entryChanges.remove(id);
+            JournalChange merged = earlier != null ? merge(earlier, change) : change;
+            if (merged != null) {
+                entryChanges.put(id, merged);
+            }
+        }
+
+        List<JournalChange> result = new ArrayList<>(entryChanges.size() + days.size());
+        result.addAll(entryChanges.values());
+        for (Map.Entry<LocalDate, Long> day : days.entrySet()) {
+            result.add(dayChanged(day.getKey(), day.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Merges two consecutive changes to the same entry, or returns null if they cancel out.
+     */
+    private static JournalChange merge(JournalChange earlier, JournalChange later) {
+        switch (earlier.type) {
+            case ENTRY_ADDED:
+                if (later.type == Type.ENTRY_REMOVED) {
+                    return null;
+                }
+                return entryAdded(later.entry, later.version);
+            case ENTRY_UPDATED:
+                if (later.type == Type.ENTRY_REMOVED) {
+                    return entryRemoved(earlier.previousEntry, later.version);
+                }
+                return entryUpdated(earlier.previousEntry, later.entry, later.version);
+            case ENTRY_REMOVED:
+                if (later.type == Type.ENTRY_REMOVED) {
+                    return earlier;
+                }
+                return entryUpdated(earlier.entry, later.entry, later.version);
+            default:
+                return later;
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (!isEntryChange()) {
+            return type + " " + date;
+        }
+        return type + " " + date + " #" + entry.getId();
+    }
+}
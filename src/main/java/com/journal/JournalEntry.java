@@ -8,6 +8,7 @@ import java.time.format.DateTimeFormatter;
  * Each entry tracks an activity with start time, end time, type, and productivity flags.
  */
 public class JournalEntry {
+    private long id;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private String activityType;
@@ -35,7 +36,30 @@ public class JournalEntry {
         this.note = note != null ? note : "";
     }
 
+    /**
+     * Returns a detached copy of this entry, e.g. to hand out an entry read by a scan.
+     */
+    public JournalEntry copy() {
+        JournalEntry copy = new JournalEntry(getStartTime(), getEndTime(), getActivityType(),
+                isConsuming(), isProductive(), getNote());
+        copy.setId(getId());
+        return copy;
+    }
+
     // Getters and Setters
+
+    /**
+     * Gets the stable id of this entry, or 0 if it has not been saved yet.
+     * Ids are assigned by {@link JournalManager} and increase with the time they were created.
+     */
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
     public LocalDateTime getStartTime() {
         return startTime;
     }
@@ -84,27 +108,47 @@ public class JournalEntry {
         this.note = note != null ? note : "";
     }
 
+    /**
+     * Gets the main category of this activity: the first word of its activity type,
+     * in lowercase, or null if the activity type is empty.
+     */
+    public String getMainCategory() {
+        java.util.List<String> tokens = CategoryManager.tokenize(getActivityType());
+        return tokens.isEmpty() ? null : tokens.get(0);
+    }
+
+    /**
+     * Calculates the duration of this activity in whole minutes.
+     */
+    public long getDurationMinutes() {
+        LocalDateTime start = getStartTime();
+        LocalDateTime end = getEndTime();
+        if (start == null || end == null) {
+            return 0;
+        }
+        return java.time.Duration.between(start, end).toMinutes();
+    }
+
     /**
      * Calculates the duration of this activity in hours.
      */
     public double getDurationHours() {
-        if (startTime == null || endTime == null) {
-            return 0.0;
-        }
-        long minutes = java.time.Duration.between(startTime, endTime).toMinutes();
-        return minutes / 60.0;
+        return getDurationMinutes() / 60.0;
     }
 
     @Override
     public String toString() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        String noteStr = (note != null && !note.trim().isEmpty()) ? " | Note: " + note : "";
+        String note = getNote();
+        String noteStr = !note.trim().isEmpty() ? " | Note: " + note : "";
+        LocalDateTime start = getStartTime();
+        LocalDateTime end = getEndTime();
         return String.format("Activity: %s | %s - %s | Consuming: %s | Productive: %s | Duration: %.2f hours%s",
-                activityType,
-                startTime != null ? startTime.format(formatter) : "N/A",
-                endTime != null ? endTime.format(formatter) : "N/A",
-                isConsuming,
-                isProductive,
+                getActivityType(),
+                start != null ? start.format(formatter) : "N/A",
+                end != null ? end.format(formatter) : "N/A",
+                isConsuming(),
+                isProductive(),
                 getDurationHours(),
                 noteStr);
     }
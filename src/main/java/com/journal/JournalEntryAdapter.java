@@ -0,0 +1,143 @@
+package com.journal;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gson adapter reading and writing journal entries field by field, without reflection.
+ * Produces the same JSON as the reflective adapter did, plus the entry id once one is assigned,
+ * so existing files stay compatible.
+ * Unknown fields are skipped. Entries are written through their getters, so lazy views
+ * serialize correctly.
+ */
+public class JournalEntryAdapter extends TypeAdapter<JournalEntry> {
+    /**
+     * The type of a day's entry list, for {@code fromJson}/{@code toJson} and adapter registration.
+     */
+    public static final Type LIST_TYPE = new TypeToken<List<JournalEntry>>(){}.getType();
+
+    /**
+     * Adapter for a JSON array of entries.
+     */
+    public static class ListAdapter extends TypeAdapter<List<JournalEntry>> {
+        private final JournalEntryAdapter entryAdapter;
+
+        public ListAdapter(JournalEntryAdapter entryAdapter) {
+            this.entryAdapter = entryAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, List<JournalEntry> entries) throws IOException {
+            if (entries == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginArray();
+            for (JournalEntry entry : entries) {
+                entryAdapter.write(out, entry);
+            }
+            out.endArray();
+        }
+
+        @Override
+        public List<JournalEntry> read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            List<JournalEntry> entries = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                entries.add(entryAdapter.read(in));
+            }
+            in.endArray();
+            return entries;
+        }
+    }
+
+    @Override
+    public void write(JsonWriter out, JournalEntry entry) throws IOException {
+        if (entry == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (entry.getId() != 0) {
+            out.name("id").value(entry.getId());
+        }
+        LocalDateTime startTime = entry.getStartTime();
+        if (startTime != null) {
+            out.name("startTime").value(LocalDateTimeAdapter.format(startTime));
+        }
+        LocalDateTime endTime = entry.getEndTime();
+        if (endTime != null) {
+            out.name("endTime").value(LocalDateTimeAdapter.format(endTime));
+        }
+        if (entry.getActivityType() != null) {
+            out.name("activityType").value(entry.getActivityType());
+        }
+        out.name("isConsuming").value(entry.isConsuming());
+        out.name("isProductive").value(entry.isProductive());
+        out.name("note").value(entry.getNote());
+        out.endObject();
+    }
+
+    @Override
+    public JournalEntry read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        long id = 0;
+        LocalDateTime startTime = null;
+        LocalDateTime endTime = null;
+        String activityType = null;
+        boolean consuming = false;
+        boolean productive = false;
+        String note = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id": id = in.nextLong(); break;
+                case "startTime": startTime = LocalDateTimeAdapter.parse(in.nextString()); break;
+                case "endTime": endTime = LocalDateTimeAdapter.parse(in.nextString()); break;
+                case "activityType": activityType = in.nextString(); break;
+                case "isConsuming": consuming = readBoolean(in); break;
+                case "isProductive": productive = readBoolean(in); break;
+                case "note": note = in.nextString(); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+
+        JournalEntry entry = new JournalEntry(startTime, endTime, activityType, consuming, productive, note);
+        entry.setId(id);
+        return entry;
+    }
+
+    /**
+     * Reads a boolean, also accepting {@code "true"}/{@code "false"} strings like Gson does.
+     */
+    private static boolean readBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+}
@@ -0,0 +1,252 @@
+package com.journal;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Exports journal entries and aggregates to CSV, TSV or JSON-lines.
+ * Data is streamed one day at a time, so the full history is never held in memory.
+ * Entry exports use the same column names as {@link JournalImporter}.
+ */
+public class JournalExporter {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /**
+     * The kinds of data that can be exported.
+     */
+    public enum Kind {
+        ENTRIES, DAILY, WEEKLY, CATEGORIES;
+
+        public static Kind fromName(String name) {
+            return valueOf(name.trim().toUpperCase());
+        }
+    }
+
+    private final JournalManager journalManager;
+    private final AnalysisService analysisService;
+    private final Gson gson;
+
+    public JournalExporter(JournalManager journalManager, AnalysisService analysisService) {
+        this.journalManager = journalManager;
+        this.analysisService = analysisService;
+        this.gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeHierarchyAdapter(JournalEntry.class, new JournalEntryAdapter())
+                .create();
+    }
+
+    /**
+     * Exports to a file, choosing the format from the file extension.
+     * @param from First date to include, or null for no lower bound
+     * @param to Last date to include, or null for no upper bound
+     * @return the number of rows written
+     */
+    public long exportToFile(Kind kind, Path file, LocalDate from, LocalDate to) throws IOException {
+        JournalImporter.Format format = JournalImporter.Format.fromFileName(file.getFileName().toString());
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return export(kind, writer, format, from, to);
+        }
+    }
+
+    /**
+     * Exports to a writer. The writer is flushed but not closed.
+     * @return the number of rows written
+     */
+    public long export(Kind kind, Writer writer, JournalImporter.Format format,
+                       LocalDate from, LocalDate to) throws IOException {
+        BufferedWriter out = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
+        long rows;
+        switch (kind) {
+            case ENTRIES:
+                rows = exportEntries(out, format, from, to);
+                break;
+            case DAILY:
+                rows = exportDailyStats(out, format, from, to);
+                break;
+            case WEEKLY:
+                rows = exportWeeklyStats(out, format, from, to);
+                break;
+            case CATEGORIES:
+                rows = exportCategoryHours(out, format, from, to);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown export kind: " + kind);
+        }
+        out.flush();
+        return rows;
+    }
+
+    private long exportEntries(BufferedWriter out, JournalImporter.Format format,
+                               LocalDate from, LocalDate to) throws IOException {
+        writeHeader(out, format, JournalImporter.START_TIME, JournalImporter.END_TIME,
+                JournalImporter.ACTIVITY_TYPE, JournalImporter.IS_CONSUMING,
+                JournalImporter.IS_PRODUCTIVE, JournalImporter.NOTE);
+
+        long rows = 0;
+        // Export a consistent point in time even if entries are saved meanwhile
+        try (JournalSnapshot snapshot = journalManager.openSnapshot()) {
+            EntryCursor cursor = snapshot.openCursor(from, to, true);
+            while (cursor.hasNext()) {
+                JournalEntry entry = cursor.next();
+                if (format == JournalImporter.Format.JSON_LINES) {
+                    out.write(gson.toJson(entry));
+                    out.newLine();
+                } else {
+                    writeRow(out, format,
+                            entry.getStartTime() != null ? entry.getStartTime().toString() : "",
+                            entry.getEndTime() != null ? entry.getEndTime().toString() : "",
+                            entry.getActivityType(),
+                            String.valueOf(entry.isConsuming()),
+                            String.valueOf(entry.isProductive()),
+                            entry.getNote());
+                }
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private long exportDailyStats(BufferedWriter out, JournalImporter.Format format,
+                                  LocalDate from, LocalDate to) throws IOException {
+        writeHeader(out, format, "date", "consumingHours", "productiveHours", "totalHours");
+
+        long rows = 0;
+        for (LocalDate date : datesInRange(from, to)) {
+            writeStatsRow(out, format, "date", date.format(DATE_FORMATTER), analysisService.getStatsForDate(date));
+            rows++;
+        }
+        return rows;
+    }
+
+    private long exportWeeklyStats(BufferedWriter out, JournalImporter.Format format,
+                                   LocalDate from, LocalDate to) throws IOException {
+        writeHeader(out, format, "week", "consumingHours", "productiveHours", "totalHours");
+
+        long rows = 0;
+        LocalDate weekStart = null;
+        double consumingHours = 0.0;
+        double productiveHours = 0.0;
+
+        for (LocalDate date : datesInRange(from, to)) {
+            LocalDate dateWeekStart = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            if (weekStart != null && !weekStart.equals(dateWeekStart)) {
+                writeStatsRow(out, format, "week", isoWeek(weekStart),
+                        new AnalysisService.ConsumingProductiveStats(consumingHours, productiveHours));
+                rows++;
+                consumingHours = 0.0;
+                productiveHours = 0.0;
+            }
+            weekStart = dateWeekStart;
+
+            AnalysisService.ConsumingProductiveStats stats = analysisService.getStatsForDate(date);
+            consumingHours += stats.getConsumingHours();
+            productiveHours += stats.getProductiveHours();
+        }
+
+        if (weekStart != null) {
+            writeStatsRow(out, format, "week", isoWeek(weekStart),
+                    new AnalysisService.ConsumingProductiveStats(consumingHours, productiveHours));
+            rows++;
+        }
+        return rows;
+    }
+
+    private long exportCategoryHours(BufferedWriter out, JournalImporter.Format format,
+                                     LocalDate from, LocalDate to) throws IOException {
+        writeHeader(out, format, "category", "hours");
+
+        // Summed from the rollups, so a range export does not pull its days through the day cache
+        Map<String, Double> hours = analysisService.getMainActivityHours(from, to);
+
+        long rows = 0;
+        for (Map.Entry<String, Double> category : hours.entrySet()) {
+            if (format == JournalImporter.Format.JSON_LINES) {
+                JsonObject object = new JsonObject();
+                object.addProperty("category", category.getKey());
+                object.addProperty("hours", category.getValue());
+                out.write(gson.toJson(object));
+                out.newLine();
+            } else {
+                writeRow(out, format, category.getKey(), formatHours(category.getValue()));
+            }
+            rows++;
+        }
+        return rows;
+    }
+
+    private void writeStatsRow(BufferedWriter out, JournalImporter.Format format, String keyName, String key,
+                               AnalysisService.ConsumingProductiveStats stats) throws IOException {
+        if (format == JournalImporter.Format.JSON_LINES) {
+            JsonObject object = new JsonObject();
+            object.addProperty(keyName, key);
+            object.addProperty("consumingHours", stats.getConsumingHours());
+            object.addProperty("productiveHours", stats.getProductiveHours());
+            object.addProperty("totalHours", stats.getTotalHours());
+            out.write(gson.toJson(object));
+            out.newLine();
+        } else {
+            writeRow(out, format, key, formatHours(stats.getConsumingHours()),
+                    formatHours(stats.getProductiveHours()), formatHours(stats.getTotalHours()));
+        }
+    }
+
+    private List<LocalDate> datesInRange(LocalDate from, LocalDate to) {
+        return journalManager.getDatesInRange(from, to);
+    }
+
+    private String isoWeek(LocalDate date) {
+        return String.format("%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    private String formatHours(double hours) {
+        return String.format(Locale.ROOT, "%.2f", hours);
+    }
+
+    private void writeHeader(BufferedWriter out, JournalImporter.Format format, String... columns) throws IOException {
+        if (format != JournalImporter.Format.JSON_LINES) {
+            writeRow(out, format, columns);
+        }
+    }
+
+    private void writeRow(BufferedWriter out, JournalImporter.Format format, String... values) throws IOException {
+        char separator = format == JournalImporter.Format.TSV ? '\t' : ',';
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(separator);
+            }
+            out.write(escape(values[i], separator));
+        }
+        out.newLine();
+    }
+
+    /**
+     * Quotes a value if it contains the separator, quotes or line breaks.
+     */
+    private String escape(String value, char separator) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(separator) < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
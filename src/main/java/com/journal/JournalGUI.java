@@ -2,11 +2,15 @@ package com.journal;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
+import javax.swing.tree.TreePath;
 import java.awt.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 
@@ -27,6 +31,8 @@ public class JournalGUI extends JFrame {
     private JPanel statsPanel;
     private JPanel activitiesPanel;
     private JTextArea detailsTextArea;
+    private JTree categoryTree;
+    private CategoryTreeModel categoryTreeModel;
     
     // Add Activity tab components
     private JTextField startDateField;
@@ -38,6 +44,12 @@ public class JournalGUI extends JFrame {
     private JCheckBox isConsumingCheckBox;
     private JCheckBox isProductiveCheckBox;
     private JTextArea collisionWarningArea;
+    
+    // Search tab components
+    private JTextField searchQueryField;
+    private JTextField searchFromField;
+    private JTextField searchToField;
+    private JTextArea searchResultsArea;
 
     public JournalGUI() {
         this.journalManager = new JournalManager();
@@ -47,11 +59,21 @@ public class JournalGUI extends JFrame {
         initializeGUI();
         loadAvailableDates();
         updateDisplay();
+        
+        // Keep the analysis tab current as entries are saved, on the event dispatch thread
+        journalManager.addChangeListener(changes -> SwingUtilities.invokeLater(() -> applyChanges(changes)));
     }
 
     private void initializeGUI() {
         setTitle("Journal - Activity Tracker & Analysis");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Let the next start restore the indexes instead of re-reading the days saved in this session
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                journalManager.checkpoint();
+            }
+        });
         setLayout(new BorderLayout(10, 10));
         setSize(1000, 700);
         setLocationRelativeTo(null);
@@ -63,10 +85,18 @@ public class JournalGUI extends JFrame {
         JPanel analysisPanel = createAnalysisPanel();
         tabbedPane.addTab("Analysis", analysisPanel);
         
-        // Tab 2: Add Activity
+        // Tab 2: Category tree of the analysed view
+        JPanel categoriesPanel = createCategoriesPanel();
+        tabbedPane.addTab("Categories", categoriesPanel);
+        
+        // Tab 3: Add Activity
         JPanel addActivityPanel = createAddActivityPanel();
         tabbedPane.addTab("Add Activity", addActivityPanel);
         
+        // Tab 4: Search
+        JPanel searchPanel = createSearchPanel();
+        tabbedPane.addTab("Search", searchPanel);
+        
         add(tabbedPane, BorderLayout.CENTER);
     }
 
@@ -111,6 +141,54 @@ public class JournalGUI extends JFrame {
         return panel;
     }
 
+    private JPanel createCategoriesPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        panel.add(new JLabel("Categories of the day or lifetime view chosen in the Analysis tab, largest first"),
+                BorderLayout.NORTH);
+
+        // Children are read only when a category is expanded, so very wide trees open without delay
+        categoryTreeModel = new CategoryTreeModel("All activities", this::readCategoryTreeChildren);
+        categoryTree = new JTree(categoryTreeModel);
+        categoryTree.setShowsRootHandles(true);
+        // Fixed row heights let the tree lay out wide levels without measuring every row
+        categoryTree.setRowHeight(categoryTree.getFontMetrics(categoryTree.getFont()).getHeight() + 4);
+        categoryTree.setLargeModel(true);
+        panel.add(new JScrollPane(categoryTree), BorderLayout.CENTER);
+
+        return panel;
+    }
+
+    /**
+     * Reads children for the category tree from the view shown in the analysis tab.
+     */
+    private Map<List<String>, List<CategoryTreeModel.Summary>> readCategoryTreeChildren(Collection<List<String>> paths) {
+        LocalDate date = null;
+        if (dayViewRadio.isSelected()) {
+            String selectedDate = (String) dateComboBox.getSelectedItem();
+            if (selectedDate == null || selectedDate.equals("No data available")) {
+                return Collections.emptyMap();
+            }
+            date = LocalDate.parse(selectedDate, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        }
+        return analysisService.readCategoryTree(date, date, root -> CategoryTreeModel.readChildren(root, paths));
+    }
+
+    /**
+     * Re-reads the expanded categories of the tree. Rows whose ranking changed are reported
+     * as restructured, so the expanded paths are opened again afterwards.
+     */
+    private void refreshCategoryTree() {
+        Enumeration<TreePath> expanded = categoryTree.getExpandedDescendants(new TreePath(categoryTreeModel.getRoot()));
+        categoryTreeModel.refresh();
+        while (expanded != null && expanded.hasMoreElements()) {
+            TreePath path = expanded.nextElement();
+            if (categoryTreeModel.isAttached((CategoryTreeModel.Node) path.getLastPathComponent())) {
+                categoryTree.expandPath(path);
+            }
+        }
+    }
+
     private JPanel createAddActivityPanel() {
         JPanel panel = new JPanel(new BorderLayout(10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -253,6 +331,89 @@ public class JournalGUI extends JFrame {
         return panel;
     }
 
+    private JPanel createSearchPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+        // Query panel
+        JPanel queryPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        queryPanel.add(new JLabel("Search:"));
+        searchQueryField = new JTextField(25);
+        searchQueryField.setToolTipText("Words must all match; use word* for prefixes and \"two words\" for phrases");
+        searchQueryField.addActionListener(e -> runSearch());
+        queryPanel.add(searchQueryField);
+        
+        queryPanel.add(new JLabel("From (yyyy-MM-dd):"));
+        searchFromField = new JTextField(10);
+        searchFromField.addActionListener(e -> runSearch());
+        queryPanel.add(searchFromField);
+        
+        queryPanel.add(new JLabel("To:"));
+        searchToField = new JTextField(10);
+        searchToField.addActionListener(e -> runSearch());
+        queryPanel.add(searchToField);
+        
+        JButton searchButton = new JButton("Search");
+        searchButton.addActionListener(e -> runSearch());
+        queryPanel.add(searchButton);
+        
+        panel.add(queryPanel, BorderLayout.NORTH);
+        
+        // Results area
+        searchResultsArea = new JTextArea();
+        searchResultsArea.setEditable(false);
+        searchResultsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JScrollPane scrollPane = new JScrollPane(searchResultsArea);
+        scrollPane.setBorder(new TitledBorder("Results"));
+        panel.add(scrollPane, BorderLayout.CENTER);
+        
+        return panel;
+    }
+
+    private void runSearch() {
+        String query = searchQueryField.getText().trim();
+        if (query.isEmpty()) {
+            searchResultsArea.setText("");
+            return;
+        }
+        
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = parseOptionalDate(searchFromField.getText());
+            to = parseOptionalDate(searchToField.getText());
+        } catch (DateTimeParseException e) {
+            searchResultsArea.setText("Invalid date format. Please use yyyy-MM-dd.");
+            return;
+        }
+        
+        List<JournalEntry> results = journalManager.searchEntries(query, from, to);
+        int maxShown = 1000;
+        
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Found %d matching activities", results.size()));
+        if (results.size() > maxShown) {
+            sb.append(String.format(" (showing the most recent %d)", maxShown));
+        }
+        sb.append("\n\n");
+        
+        // Most recent first
+        for (int i = results.size() - 1; i >= 0 && i >= results.size() - maxShown; i--) {
+            sb.append(results.get(i).toString()).append("\n");
+        }
+        
+        searchResultsArea.setText(sb.toString());
+        searchResultsArea.setCaretPosition(0);
+    }
+
+    private LocalDate parseOptionalDate(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        return LocalDate.parse(trimmed, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+    }
+
     private void refreshDateTime() {
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
@@ -419,10 +580,8 @@ public class JournalGUI extends JFrame {
                     "Duration: " + String.format("%.2f", newEntry.getDurationHours()) + " hours",
                     "Success", JOptionPane.INFORMATION_MESSAGE);
             
-            // Clear form and refresh
+            // Clear form; the analysis tab is refreshed by the change listener
             clearAddActivityForm();
-            loadAvailableDates();
-            updateDisplay();
             
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this,
@@ -557,12 +716,54 @@ public class JournalGUI extends JFrame {
         }
     }
 
+    /**
+     * Applies journal changes to the analysis tab: new dates are inserted into the date list,
+     * and the statistics are recomputed only if the shown view is affected.
+     */
+    private void applyChanges(List<JournalChange> changes) {
+        if (!dateComboBox.isEnabled()) {
+            loadAvailableDates();
+            updateDisplay();
+            return;
+        }
+
+        String selectedDate = (String) dateComboBox.getSelectedItem();
+        boolean affectsView = lifetimeViewRadio.isSelected();
+        for (JournalChange change : changes) {
+            if (change.getType() != JournalChange.Type.DAY_CHANGED) {
+                continue;
+            }
+            String date = change.getDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+            insertDate(date);
+            affectsView |= date.equals(selectedDate);
+        }
+        
+        if (affectsView) {
+            updateDisplay();
+        }
+    }
+
+    /**
+     * Inserts a date into the sorted date list, unless it is already there.
+     */
+    private void insertDate(String date) {
+        int index = dateComboBox.getItemCount();
+        while (index > 0 && dateComboBox.getItemAt(index - 1).compareTo(date) >= 0) {
+            if (dateComboBox.getItemAt(index - 1).equals(date)) {
+                return;
+            }
+            index--;
+        }
+        dateComboBox.insertItemAt(date, index);
+    }
+
     private void updateDisplay() {
         if (lifetimeViewRadio.isSelected()) {
             updateLifetimeDisplay();
         } else {
             updateDayDisplay();
         }
+        refreshCategoryTree();
     }
 
     private void updateDayDisplay() {
@@ -575,11 +776,12 @@ public class JournalGUI extends JFrame {
         try {
             LocalDate date = LocalDate.parse(selectedDate, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
             AnalysisService.ConsumingProductiveStats stats = analysisService.getStatsForDate(date);
-            Map<String, Double> activities = analysisService.getMainActivityHoursForDate(date);
+            Map<String, Double> activities = analysisService.getTopActivityHoursForDate(date, List.of(), Integer.MAX_VALUE);
+            TimelineStats timeline = analysisService.getTimelineStatsForDate(date);
             
             updateStatsPanel(stats);
             updateActivitiesPanel(activities);
-            updateDetailsTextArea(date, stats, activities);
+            updateDetailsTextArea(date, stats, activities, timeline);
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error loading data: " + e.getMessage(), 
                     "Error", JOptionPane.ERROR_MESSAGE);
@@ -588,11 +790,11 @@ public class JournalGUI extends JFrame {
 
     private void updateLifetimeDisplay() {
         AnalysisService.ConsumingProductiveStats stats = analysisService.getLifetimeStats();
-        Map<String, Double> activities = analysisService.getMainActivityHours();
+        Map<String, Double> activities = analysisService.getTopActivityHours(List.of(), Integer.MAX_VALUE);
         
         updateStatsPanel(stats);
         updateActivitiesPanel(activities);
-        updateDetailsTextArea(null, stats, activities);
+        updateDetailsTextArea(null, stats, activities, null);
     }
 
     private void updateStatsPanel(AnalysisService.ConsumingProductiveStats stats) {
@@ -636,9 +838,8 @@ public class JournalGUI extends JFrame {
                 if (activities.isEmpty()) {
                     activitiesList.setListData(new String[]{"No activities recorded"});
                 } else {
-                    // Sort by hours (descending) and format
+                    // Activities come ranked by hours (descending) from the category tree
                     String[] items = activities.entrySet().stream()
-                            .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
                             .map(e -> String.format("%-20s %8.2f hours", e.getKey(), e.getValue()))
                             .toArray(String[]::new);
                     activitiesList.setListData(items);
@@ -648,7 +849,7 @@ public class JournalGUI extends JFrame {
     }
 
     private void updateDetailsTextArea(LocalDate date, AnalysisService.ConsumingProductiveStats stats, 
-                                       Map<String, Double> activities) {
+                                       Map<String, Double> activities, TimelineStats timeline) {
         StringBuilder sb = new StringBuilder();
         
         if (date != null) {
@@ -664,13 +865,24 @@ public class JournalGUI extends JFrame {
                 stats.getProductiveHours(), stats.getProductivePercentage()));
         sb.append(String.format("Total:      %.2f hours\n", stats.getTotalHours()));
         
+        if (timeline != null) {
+            sb.append("\n=== Timeline ===\n");
+            sb.append(String.format("Tracked:    %.2f hours\n", timeline.getTrackedMinutes() / 60.0));
+            sb.append(String.format("Untracked:  %.2f hours\n", timeline.getUntrackedMinutes() / 60.0));
+            sb.append(String.format("Overlap:    %.2f hours\n", timeline.getOverlapMinutes() / 60.0));
+            TimelineStats.Gap longestGap = timeline.getLongestGap();
+            if (longestGap != null) {
+                sb.append(String.format("Longest gap: %s - %s (%.2f hours)\n",
+                        longestGap.getStart().toLocalTime(), longestGap.getEnd().toLocalTime(),
+                        longestGap.getMinutes() / 60.0));
+            }
+        }
+        
         sb.append("\n=== Main Activities (sorted by time) ===\n");
         if (activities.isEmpty()) {
             sb.append("No activities recorded.\n");
         } else {
-            activities.entrySet().stream()
-                    .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
-                    .forEach(e -> sb.append(String.format("%-25s %8.2f hours\n", e.getKey(), e.getValue())));
+            activities.forEach((activity, hours) -> sb.append(String.format("%-25s %8.2f hours\n", activity, hours)));
         }
         
         detailsTextArea.setText(sb.toString());
@@ -700,10 +912,10 @@ public class JournalGUI extends JFrame {
             }
         }
         
-        // Get all entries for this main category
-        List<JournalEntry> entries = analysisService.getEntriesByMainCategory(mainCategory, dateFilter);
+        // Rows are loaded lazily from the store as they are displayed
+        ActivityTableModel model = new ActivityTableModel(journalManager, mainCategory, dateFilter);
         
-        if (entries.isEmpty()) {
+        if (model.getRowCount() == 0) {
             JOptionPane.showMessageDialog(this,
                     "No activities found for category: " + mainCategory,
                     "No Activities", JOptionPane.INFORMATION_MESSAGE);
@@ -715,44 +927,10 @@ public class JournalGUI extends JFrame {
         dialog.setSize(1000, 600);
         dialog.setLocationRelativeTo(this);
         
-        // Create table model
-        String[] columnNames = {"Date", "Start Time", "End Time", "Activity", "Duration (hrs)", 
-                               "Consuming", "Productive", "Note"};
-        Object[][] data = new Object[entries.size()][8];
-        
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-        
-        // Sort entries by date and start time
-        entries.sort((a, b) -> {
-            int dateCompare = a.getStartTime().toLocalDate().compareTo(b.getStartTime().toLocalDate());
-            if (dateCompare != 0) return dateCompare;
-            return a.getStartTime().compareTo(b.getStartTime());
-        });
-        
-        for (int i = 0; i < entries.size(); i++) {
-            JournalEntry entry = entries.get(i);
-            data[i][0] = entry.getStartTime().toLocalDate().format(dateFormatter);
-            data[i][1] = entry.getStartTime().format(timeFormatter);
-            data[i][2] = entry.getEndTime().format(timeFormatter);
-            data[i][3] = entry.getActivityType();
-            data[i][4] = String.format("%.2f", entry.getDurationHours());
-            data[i][5] = entry.isConsuming() ? "Yes" : "No";
-            data[i][6] = entry.isProductive() ? "Yes" : "No";
-            data[i][7] = entry.getNote() != null && !entry.getNote().trim().isEmpty() 
-                        ? entry.getNote() : "-";
-        }
-        
-        javax.swing.table.DefaultTableModel model = new javax.swing.table.DefaultTableModel(data, columnNames) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        
         JTable table = new JTable(model);
         table.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
         table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        table.setRowHeight(25);
         
         // Set column widths
         table.getColumnModel().getColumn(0).setPreferredWidth(100); // Date
@@ -762,68 +940,22 @@ public class JournalGUI extends JFrame {
         table.getColumnModel().getColumn(4).setPreferredWidth(100);  // Duration
         table.getColumnModel().getColumn(5).setPreferredWidth(80);   // Consuming
         table.getColumnModel().getColumn(6).setPreferredWidth(80);   // Productive
-        table.getColumnModel().getColumn(7).setPreferredWidth(400);  // Note - wider for full text
-        
-        // Custom cell renderer for note column (column 7) to wrap text
-        table.getColumnModel().getColumn(7).setCellRenderer(new javax.swing.table.TableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable table, Object value,
-                    boolean isSelected, boolean hasFocus, int row, int column) {
-                JTextArea textArea = new JTextArea();
-                String text = value != null ? value.toString() : "";
-                textArea.setText(text);
-                textArea.setWrapStyleWord(true);
-                textArea.setLineWrap(true);
-                textArea.setFont(table.getFont());
-                textArea.setOpaque(true);
-                textArea.setBorder(javax.swing.BorderFactory.createEmptyBorder(4, 4, 4, 4));
-                
-                if (isSelected) {
-                    textArea.setBackground(table.getSelectionBackground());
-                    textArea.setForeground(table.getSelectionForeground());
-                } else {
-                    textArea.setBackground(table.getBackground());
-                    textArea.setForeground(table.getForeground());
-                }
-                
-                return textArea;
-            }
-        });
-        
-        // Calculate and set row heights based on note content
-        int noteColumnWidth = table.getColumnModel().getColumn(7).getPreferredWidth();
-        int defaultRowHeight = 25;
-        
-        for (int i = 0; i < table.getRowCount(); i++) {
-            String note = (String) table.getValueAt(i, 7);
-            if (note != null && !note.equals("-") && !note.trim().isEmpty()) {
-                // Calculate height needed for wrapped text
-                JTextArea tempArea = new JTextArea(note);
-                tempArea.setWrapStyleWord(true);
-                tempArea.setLineWrap(true);
-                tempArea.setFont(table.getFont());
-                tempArea.setSize(noteColumnWidth - 20, Short.MAX_VALUE);
-                int preferredHeight = tempArea.getPreferredSize().height;
-                table.setRowHeight(i, Math.max(defaultRowHeight, preferredHeight + 8));
-            } else {
-                table.setRowHeight(i, defaultRowHeight);
-            }
-        }
+        table.getColumnModel().getColumn(ActivityTableModel.NOTE_COLUMN).setPreferredWidth(400);  // Note - wider for full text
         
         // Enable column reordering
         table.getTableHeader().setReorderingAllowed(true);
         
         JScrollPane scrollPane = new JScrollPane(table);
+        
+        // Note column wraps text; row heights are measured when rows first become visible
+        new NoteCellRenderer(ActivityTableModel.NOTE_COLUMN, model.getRowCount(), 25).install(table, scrollPane);
         scrollPane.setBorder(BorderFactory.createTitledBorder(
-                String.format("Total: %d activities", entries.size())));
+                String.format("Total: %d activities", model.getRowCount())));
         
         // Summary panel
-        double totalHours = entries.stream()
-                .mapToDouble(JournalEntry::getDurationHours)
-                .sum();
         JLabel summaryLabel = new JLabel(String.format(
                 "Total Duration: %.2f hours | Main Category: %s", 
-                totalHours, mainCategory));
+                model.getTotalHours(), mainCategory));
         summaryLabel.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 12));
         
         JPanel summaryPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
@@ -844,6 +976,101 @@ public class JournalGUI extends JFrame {
         dialog.setVisible(true);
     }
 
+    /**
+     * Renders wrapped note text with a single reused text area.
+     * Row heights are not set while painting: {@link #install} measures each row once, by model row,
+     * when it first scrolls into view, and sets the height of the row where the view currently shows it.
+     */
+    private static class NoteCellRenderer extends JTextArea implements javax.swing.table.TableCellRenderer {
+        private static final long serialVersionUID = 1L;
+
+        private final int modelColumn;
+        private final int[] measuredHeights;
+        private final int defaultRowHeight;
+
+        NoteCellRenderer(int modelColumn, int rowCount, int defaultRowHeight) {
+            this.modelColumn = modelColumn;
+            this.measuredHeights = new int[rowCount];
+            this.defaultRowHeight = defaultRowHeight;
+            setWrapStyleWord(true);
+            setLineWrap(true);
+            setOpaque(true);
+            setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
+        }
+
+        /**
+         * Sets this renderer on the note column and measures rows as they become visible in the scroll pane,
+         * and again after the table is sorted.
+         */
+        void install(JTable table, JScrollPane scrollPane) {
+            table.getColumnModel().getColumn(table.convertColumnIndexToView(modelColumn)).setCellRenderer(this);
+            scrollPane.getViewport().addChangeListener(e -> measureVisibleRows(table));
+            table.addPropertyChangeListener("rowSorter", e -> watchSorter(table));
+            watchSorter(table);
+        }
+
+        private void watchSorter(JTable table) {
+            if (table.getRowSorter() != null) {
+                // The table maps its rows after the sorter's listeners run, so measure afterwards
+                table.getRowSorter().addRowSorterListener(e -> SwingUtilities.invokeLater(() -> measureVisibleRows(table)));
+            }
+        }
+
+        private void measureVisibleRows(JTable table) {
+            int viewColumn = table.convertColumnIndexToView(modelColumn);
+            if (viewColumn < 0 || table.getRowCount() == 0) {
+                return;
+            }
+            Rectangle visible = table.getVisibleRect();
+            int first = table.rowAtPoint(new Point(0, visible.y));
+            int last = table.rowAtPoint(new Point(0, visible.y + visible.height - 1));
+            if (first < 0) {
+                return;
+            }
+            if (last < 0) {
+                last = table.getRowCount() - 1;
+            }
+            int width = table.getColumnModel().getColumn(viewColumn).getWidth();
+            for (int row = first; row <= last; row++) {
+                int modelRow = table.convertRowIndexToModel(row);
+                if (measuredHeights[modelRow] == 0) {
+                    measuredHeights[modelRow] = measure(table, table.getModel().getValueAt(modelRow, modelColumn), width);
+                }
+                if (table.getRowHeight(row) != measuredHeights[modelRow]) {
+                    table.setRowHeight(row, measuredHeights[modelRow]);
+                }
+            }
+        }
+
+        private int measure(JTable table, Object value, int width) {
+            String text = value != null ? value.toString() : "";
+            if (text.equals("-") || text.trim().isEmpty()) {
+                return defaultRowHeight;
+            }
+            setText(text);
+            setFont(table.getFont());
+            setSize(width, Short.MAX_VALUE);
+            return Math.max(defaultRowHeight, getPreferredSize().height);
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value,
+                boolean isSelected, boolean hasFocus, int row, int column) {
+            setText(value != null ? value.toString() : "");
+            setFont(table.getFont());
+            
+            if (isSelected) {
+                setBackground(table.getSelectionBackground());
+                setForeground(table.getSelectionForeground());
+            } else {
+                setBackground(table.getBackground());
+                setForeground(table.getForeground());
+            }
+            
+            return this;
+        }
+    }
+
     private void clearDisplay() {
         updateStatsPanel(new AnalysisService.ConsumingProductiveStats(0, 0));
         updateActivitiesPanel(Map.of());
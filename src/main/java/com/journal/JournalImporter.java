@@ -0,0 +1,383 @@
+package com.journal;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imports journal entries from files exported by other time trackers.
+ * Input is streamed line by line and written in batches through
+ * {@link JournalManager#saveEntries}, so memory use is bounded by the batch size.
+ */
+public class JournalImporter {
+    public static final String START_TIME = "startTime";
+    public static final String END_TIME = "endTime";
+    public static final String ACTIVITY_TYPE = "activityType";
+    public static final String IS_CONSUMING = "isConsuming";
+    public static final String IS_PRODUCTIVE = "isProductive";
+    public static final String NOTE = "note";
+
+    private static final int DEFAULT_BATCH_SIZE = 5000;
+
+    /**
+     * Supported input formats.
+     */
+    public enum Format {
+        CSV, TSV, JSON_LINES;
+
+        /**
+         * Guesses the format from a file name, defaulting to CSV.
+         */
+        public static Format fromFileName(String fileName) {
+            String lower = fileName.toLowerCase();
+            if (lower.endsWith(".tsv") || lower.endsWith(".tab")) {
+                return TSV;
+            }
+            if (lower.endsWith(".jsonl") || lower.endsWith(".ndjson")) {
+                return JSON_LINES;
+            }
+            return CSV;
+        }
+    }
+
+    /**
+     * Receives progress updates while an import is running.
+     */
+    public interface ProgressListener {
+        void onProgress(ImportResult progress);
+    }
+
+    /**
+     * Counters describing an import, also used for progress reporting.
+     */
+    public static class ImportResult {
+        private long rowsRead;
+        private long imported;
+        private long skippedCollisions;
+        private long skippedInvalid;
+
+        public long getRowsRead() { return rowsRead; }
+        public long getImported() { return imported; }
+        public long getSkippedCollisions() { return skippedCollisions; }
+        public long getSkippedInvalid() { return skippedInvalid; }
+
+        @Override
+        public String toString() {
+            return String.format("Rows read: %d | Imported: %d | Skipped (collisions): %d | Skipped (invalid): %d",
+                    rowsRead, imported, skippedCollisions, skippedInvalid);
+        }
+    }
+
+    private final JournalManager journalManager;
+    private final Map<String, String> columnMapping;
+    private final List<DateTimeFormatter> dateTimeFormatters;
+    private int batchSize;
+    private boolean skipCollisions;
+    private int progressInterval;
+
+    public JournalImporter(JournalManager journalManager) {
+        this.journalManager = journalManager;
+        this.columnMapping = new HashMap<>();
+        this.dateTimeFormatters = new ArrayList<>();
+        this.dateTimeFormatters.add(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        this.dateTimeFormatters.add(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]"));
+        this.batchSize = DEFAULT_BATCH_SIZE;
+        this.skipCollisions = true;
+        this.progressInterval = DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Maps an entry field (e.g. {@link #START_TIME}) to a column name or JSON key in the input.
+     * Unmapped fields are read from a column with the field's own name.
+     */
+    public void mapColumn(String field, String column) {
+        columnMapping.put(field, column);
+    }
+
+    /**
+     * Replaces the accepted date/time patterns. Patterns are tried in order.
+     */
+    public void setDateTimePatterns(List<String> patterns) {
+        dateTimeFormatters.clear();
+        for (String pattern : patterns) {
+            dateTimeFormatters.add(DateTimeFormatter.ofPattern(pattern));
+        }
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Sets whether entries that overlap existing entries are skipped (default) or imported anyway.
+     */
+    public void setSkipCollisions(boolean skipCollisions) {
+        this.skipCollisions = skipCollisions;
+    }
+
+    /**
+     * Sets how many rows are read between progress updates.
+     */
+    public void setProgressInterval(int progressInterval) {
+        this.progressInterval = Math.max(1, progressInterval);
+    }
+
+    /**
+     * Imports a file, guessing the format from its extension.
+     */
+    public ImportResult importFile(Path file, ProgressListener listener) throws IOException {
+        return importFile(file, Format.fromFileName(file.getFileName().toString()), listener);
+    }
+
+    /**
+     * Imports a file in the given format.
+     */
+    public ImportResult importFile(Path file, Format format, ProgressListener listener) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(reader, format, listener);
+        }
+    }
+
+    /**
+     * Imports entries from a reader. The reader is consumed but not closed.
+     */
+    public ImportResult importFrom(Reader input, Format format, ProgressListener listener) throws IOException {
+        BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input);
+        ImportResult result = new ImportResult();
+        List<JournalEntry> batch = new ArrayList<>(Math.min(batchSize, DEFAULT_BATCH_SIZE));
+        Map<String, Integer> header = null;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            JournalEntry entry;
+            if (format == Format.JSON_LINES) {
+                entry = parseJsonLine(line);
+            } else {
+                char separator = format == Format.TSV ? '\t' : ',';
+                List<String> fields = parseDelimitedRecord(line, reader, separator);
+                if (header == null) {
+                    header = indexHeader(fields);
+                    continue;
+                }
+                entry = parseDelimitedRow(fields, header);
+            }
+
+            result.rowsRead++;
+            if (entry == null) {
+                result.skippedInvalid++;
+            } else {
+                batch.add(entry);
+                if (batch.size() >= batchSize) {
+                    flushBatch(batch, result);
+                }
+            }
+
+            if (listener != null && result.rowsRead % progressInterval == 0) {
+                listener.onProgress(result);
+            }
+        }
+
+        flushBatch(batch, result);
+        if (listener != null) {
+            listener.onProgress(result);
+        }
+        return result;
+    }
+
+    /**
+     * Runs one batched collision check and writes the accepted entries through the bulk path.
+     */
+    private void flushBatch(List<JournalEntry> batch, ImportResult result) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<JournalEntry> accepted = batch;
+        if (skipCollisions) {
+            Map<JournalEntry, List<JournalEntry>> collisions = journalManager.checkCollisions(batch);
+            if (!collisions.isEmpty()) {
+                accepted = new ArrayList<>(batch.size());
+                for (JournalEntry entry : batch) {
+                    if (collisions.containsKey(entry)) {
+                        result.skippedCollisions++;
+                    } else {
+                        accepted.add(entry);
+                    }
+                }
+            }
+        }
+
+        journalManager.saveEntries(accepted, true);
+        result.imported += accepted.size();
+        batch.clear();
+    }
+
+    private JournalEntry parseJsonLine(String line) {
+        try {
+            JsonElement element = JsonParser.parseString(line);
+            if (!element.isJsonObject()) {
+                return null;
+            }
+            JsonObject object = element.getAsJsonObject();
+            return buildEntry(
+                    jsonValue(object, START_TIME),
+                    jsonValue(object, END_TIME),
+                    jsonValue(object, ACTIVITY_TYPE),
+                    jsonValue(object, IS_CONSUMING),
+                    jsonValue(object, IS_PRODUCTIVE),
+                    jsonValue(object, NOTE));
+        } catch (JsonParseException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private String jsonValue(JsonObject object, String field) {
+        JsonElement value = object.get(columnFor(field));
+        // Objects and arrays have no string value and are treated like a missing field
+        if (value == null || !value.isJsonPrimitive()) {
+            return null;
+        }
+        return value.getAsString();
+    }
+
+    private JournalEntry parseDelimitedRow(List<String> fields, Map<String, Integer> header) {
+        return buildEntry(
+                fieldValue(fields, header, START_TIME),
+                fieldValue(fields, header, END_TIME),
+                fieldValue(fields, header, ACTIVITY_TYPE),
+                fieldValue(fields, header, IS_CONSUMING),
+                fieldValue(fields, header, IS_PRODUCTIVE),
+                fieldValue(fields, header, NOTE));
+    }
+
+    private String fieldValue(List<String> fields, Map<String, Integer> header, String field) {
+        Integer index = header.get(columnFor(field).toLowerCase());
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private Map<String, Integer> indexHeader(List<String> fields) {
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            header.put(fields.get(i).trim().toLowerCase(), i);
+        }
+        return header;
+    }
+
+    private String columnFor(String field) {
+        return columnMapping.getOrDefault(field, field);
+    }
+
+    /**
+     * Builds an entry from raw field values, or returns null if the row is unusable.
+     */
+    private JournalEntry buildEntry(String start, String end, String activityType,
+                                    String consuming, String productive, String note) {
+        LocalDateTime startTime = parseDateTime(start);
+        LocalDateTime endTime = parseDateTime(end);
+        if (startTime == null || endTime == null || !endTime.isAfter(startTime)) {
+            return null;
+        }
+        if (activityType == null || activityType.trim().isEmpty()) {
+            return null;
+        }
+        return new JournalEntry(startTime, endTime, activityType.trim(),
+                parseBoolean(consuming), parseBoolean(productive), note != null ? note.trim() : "");
+    }
+
+    private LocalDateTime parseDateTime(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        for (DateTimeFormatter formatter : dateTimeFormatters) {
+            try {
+                return LocalDateTime.parse(trimmed, formatter);
+            } catch (DateTimeParseException e) {
+                // Try the next pattern
+            }
+        }
+        return null;
+    }
+
+    private boolean parseBoolean(String value) {
+        if (value == null) {
+            return false;
+        }
+        String lower = value.trim().toLowerCase();
+        return lower.equals("true") || lower.equals("yes") || lower.equals("y") || lower.equals("1");
+    }
+
+    /**
+     * Splits one delimited record into fields. Quoted fields may contain separators,
+     * doubled quotes and line breaks; in the latter case further lines are read from the reader.
+     */
+    private List<String> parseDelimitedRecord(String line, BufferedReader reader, char separator) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        String current = line;
+        int i = 0;
+
+        while (true) {
+            if (i >= current.length()) {
+                if (!inQuotes) {
+                    break;
+                }
+                String next = reader.readLine();
+                if (next == null) {
+                    break;
+                }
+                field.append('\n');
+                current = next;
+                i = 0;
+                continue;
+            }
+
+            char c = current.charAt(i++);
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i < current.length() && current.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -2,37 +2,169 @@ package com.journal;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Manages journal entries - handles storage and retrieval of activities.
- * Data is stored in JSON format, organized by date.
+ * Data is stored in JSON format, organized by date (one file per day, optionally gzip-compressed).
  */
 public class JournalManager {
-    private static final String DATA_DIR = "data";
+    /**
+     * How day files are written. Files in any format are read transparently.
+     */
+    public enum OutputFormat {
+        /** Indented JSON in {@code yyyy-MM-dd.json} */
+        PRETTY,
+        /** JSON without whitespace in {@code yyyy-MM-dd.json} */
+        COMPACT,
+        /** Compact JSON, gzip-compressed, in {@code yyyy-MM-dd.json.gz} */
+        GZIP;
+
+        /**
+         * Parses a format name case-insensitively, falling back to PRETTY for unknown names.
+         */
+        public static OutputFormat fromName(String name) {
+            for (OutputFormat format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return PRETTY;
+        }
+    }
+
+    private static final String DEFAULT_DATA_DIR = "data";
+    private static final String JSON_EXTENSION = ".json";
+    private static final String GZIP_EXTENSION = ".json.gz";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final String CHECKPOINT_FILE = "state.ckpt";
+    private static final int DEFAULT_CACHE_DAYS = 400;
+    private static final long DEFAULT_CACHE_BYTES = 32L * 1024 * 1024;
+    private static final long DEFAULT_COLD_CACHE_BYTES = 64L * 1024 * 1024;
+    private static final int REINDEX_BATCH_DAYS = 256;
+    private static final int DAY_LOCK_STRIPES = 64;
+    private static final int MAX_LOCATE_ATTEMPTS = 3;
+    private static final long DEFAULT_CHECKPOINT_SECONDS = 30;
+    private final File dataDir;
     private final Gson gson;
+    private final Gson compactGson;
+    private final DayCache dayCache;
+    private final ColdDayStore coldDayStore;
+    private final List<DerivedIndex> derivedIndexes = new CopyOnWriteArrayList<>();
+    private final StateCheckpoint checkpoint;
+    private final long checkpointIntervalMillis;
+    private RollupStore rollupStore;
+    private SearchIndex searchIndex;
+    private EntryIdIndex entryIdIndex;
+    private CategoryIndex categoryIndex;
+    // Data file stamp of every day, listed once when the first index is opened and kept current by writes
+    private volatile Map<LocalDate, Long> currentStamps;
+    private final AtomicLong lastEntryId = new AtomicLong();
+    private final AtomicLong dataVersion = new AtomicLong();
+    private volatile OutputFormat outputFormat;
+    private final Map<YearMonth, SegmentFile> segments = new ConcurrentHashMap<>();
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private final List<JournalChange> pendingChanges = new ArrayList<>();
+    private final List<JournalSnapshot> openSnapshots = new CopyOnWriteArrayList<>();
+    // Guards publishing days, opening snapshots and filling the caches from storage.
+    // Locks held across file I/O are ReentrantLocks, so virtual threads blocked on them do not pin their carrier.
+    private final ReentrantLock publishLock = new ReentrantLock();
+    // Guards opening, closing and replacing month segments
+    private final ReentrantLock segmentLock = new ReentrantLock();
+    // Days written by this manager; a directory listing may miss a day file while it is being replaced
+    private final Set<LocalDate> writtenDates = ConcurrentHashMap.newKeySet();
+    // Serialize the load-modify-save of a day, so concurrent writers do not lose each other's entries
+    private final ReentrantLock[] dayLocks = new ReentrantLock[DAY_LOCK_STRIPES];
 
+    /**
+     * Notified after journal data was written, with the changes of one operation
+     * (or of concurrent operations finishing together) coalesced into a single batch.
+     * Listeners run on the writing thread once the derived data is up to date.
+     */
+    public interface ChangeListener {
+        void onJournalChanged(List<JournalChange> changes);
+    }
+
+    /**
+     * Creates a manager for the journal in the {@code journal.dataDir} directory, or {@code data} by default.
+     */
     public JournalManager() {
+        this(new File(System.getProperty("journal.dataDir", DEFAULT_DATA_DIR)));
+    }
+
+    /**
+     * Creates a manager for the journal stored in the given directory, creating it if needed.
+     */
+    public JournalManager(File dataDir) {
+        this.dataDir = dataDir;
+        
         // Configure Gson to handle LocalDateTime
         GsonBuilder builder = new GsonBuilder();
+        JournalEntryAdapter entryAdapter = new JournalEntryAdapter();
         builder.registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter());
+        builder.registerTypeHierarchyAdapter(JournalEntry.class, entryAdapter);
+        builder.registerTypeAdapter(JournalEntryAdapter.LIST_TYPE, new JournalEntryAdapter.ListAdapter(entryAdapter));
+        this.compactGson = builder.create();
         builder.setPrettyPrinting();
         this.gson = builder.create();
         
+        // Bounded cache of recently used days, sized via system properties if given.
+        // Days evicted from it, and days read by history scans, go to an off-heap cold tier.
+        // Evictions are stored while the cache is locked, so an evicted day always reaches the cold tier
+        // before a newer version is published, whose publish then drops it from there.
+        this.dayCache = new DayCache(
+                Integer.getInteger("journal.cache.days", DEFAULT_CACHE_DAYS),
+                Long.getLong("journal.cache.bytes", DEFAULT_CACHE_BYTES));
+        this.coldDayStore = new ColdDayStore(Long.getLong("journal.cache.coldBytes",
+                ColdDayStore.capToDirectMemory(DEFAULT_COLD_CACHE_BYTES)));
+        this.dayCache.setEvictionListener((date, entries) -> coldDayStore.put(date, encodeCompact(entries)));
+        this.outputFormat = OutputFormat.fromName(System.getProperty("journal.format", "pretty"));
+        for (int i = 0; i < dayLocks.length; i++) {
+            dayLocks[i] = new ReentrantLock();
+        }
+        
         // Ensure data directory exists
-        File dataDir = new File(DATA_DIR);
         if (!dataDir.exists()) {
             dataDir.mkdirs();
         }
+        
+        // Derived indexes start from the last checkpoint, which is rewritten at most this often while saving
+        this.checkpoint = new StateCheckpoint(new File(dataDir, CHECKPOINT_FILE));
+        this.checkpointIntervalMillis = 1000 * Long.getLong("journal.checkpoint.seconds", DEFAULT_CHECKPOINT_SECONDS);
     }
 
     /**
@@ -40,32 +172,383 @@ public class JournalManager {
      */
     public void saveEntry(JournalEntry entry) throws IOException {
         LocalDate date = entry.getStartTime().toLocalDate();
+        seedEntryIds();
         
-        List<JournalEntry> entries = loadEntriesForDate(date);
-        entries.add(entry);
-        
-        saveEntriesForDate(date, entries);
+        try {
+            ReentrantLock lock = dayLock(date);
+            lock.lock();
+            try {
+                List<JournalEntry> entries = loadEntriesForDate(date);
+                entries.add(entry);
+                long version = saveEntriesForDate(date, entries);
+                queueChange(JournalChange.entryAdded(entry, version));
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            flushDerivedData();
+        }
+    }
+
+    /**
+     * Saves many journal entries at once.
+     * Entries are grouped by date so each affected day is loaded, merged and written only once.
+     */
+    public void saveEntries(Collection<JournalEntry> entries) throws IOException {
+        saveEntries(entries, false);
+    }
+
+    /**
+     * Saves many journal entries at once, optionally writing the affected days in parallel.
+     */
+    public void saveEntries(Collection<JournalEntry> entries, boolean parallel) throws IOException {
+        Map<LocalDate, List<JournalEntry>> entriesByDate = groupByDate(entries);
+        if (entriesByDate.isEmpty()) {
+            return;
+        }
+        seedEntryIds();
+
+        try {
+            writeDays(entriesByDate, parallel);
+        } finally {
+            flushDerivedData();
+        }
+    }
+
+    /**
+     * Saves many journal entries at once unless any of them collides, checked as by
+     * {@link #checkCollisions(Collection)}. The check and the save hold the locks of every affected day,
+     * so no entry saved meanwhile can slip in between them.
+     * @return the collisions, if any; nothing is saved then
+     */
+    public Map<JournalEntry, List<JournalEntry>> saveEntriesIfNoCollisions(Collection<JournalEntry> entries)
+            throws IOException {
+        Map<LocalDate, List<JournalEntry>> entriesByDate = groupByDate(entries);
+        seedEntryIds();
+        List<ReentrantLock> locks = dayLocks(entriesByDate.keySet());
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            Map<JournalEntry, List<JournalEntry>> collisions = checkCollisions(entries);
+            if (collisions.isEmpty()) {
+                writeDays(entriesByDate, false);
+            }
+            return collisions;
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+            flushDerivedData();
+        }
+    }
+
+    private void writeDays(Map<LocalDate, List<JournalEntry>> entriesByDate, boolean parallel) throws IOException {
+        if (!parallel || entriesByDate.size() == 1) {
+            for (Map.Entry<LocalDate, List<JournalEntry>> day : entriesByDate.entrySet()) {
+                addToDate(day.getKey(), day.getValue());
+            }
+            return;
+        }
+
+        int threads = Math.min(entriesByDate.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = TaskExecutors.newBlockingTaskExecutor(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Map.Entry<LocalDate, List<JournalEntry>> day : entriesByDate.entrySet()) {
+                futures.add(executor.submit(() -> {
+                    addToDate(day.getKey(), day.getValue());
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                awaitWrite(future);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Groups entries by the date of their start time, in chronological order.
+     */
+    private Map<LocalDate, List<JournalEntry>> groupByDate(Collection<JournalEntry> entries) {
+        Map<LocalDate, List<JournalEntry>> entriesByDate = new TreeMap<>();
+        for (JournalEntry entry : entries) {
+            LocalDate date = entry.getStartTime().toLocalDate();
+            entriesByDate.computeIfAbsent(date, d -> new ArrayList<>()).add(entry);
+        }
+        return entriesByDate;
+    }
+
+    /**
+     * Saves new entries to a date, reporting them as added.
+     */
+    private void addToDate(LocalDate date, List<JournalEntry> newEntries) throws IOException {
+        long version = mergeIntoDate(date, newEntries);
+        for (JournalEntry entry : newEntries) {
+            queueChange(JournalChange.entryAdded(entry, version));
+        }
+    }
+
+    /**
+     * Appends new entries to the existing entries of a date and writes the day once.
+     * @return the data version of the write
+     */
+    private long mergeIntoDate(LocalDate date, List<JournalEntry> newEntries) throws IOException {
+        ReentrantLock lock = dayLock(date);
+        lock.lock();
+        try {
+            List<JournalEntry> entries = loadEntriesForDate(date);
+            entries.addAll(newEntries);
+            return saveEntriesForDate(date, entries);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock dayLock(LocalDate date) {
+        return dayLocks[Math.floorMod(date.hashCode(), DAY_LOCK_STRIPES)];
+    }
+
+    /**
+     * Gets the locks of two days in a fixed order, so writers locking both cannot deadlock.
+     */
+    private ReentrantLock[] dayLocks(LocalDate first, LocalDate second) {
+        int a = Math.floorMod(first.hashCode(), DAY_LOCK_STRIPES);
+        int b = Math.floorMod(second.hashCode(), DAY_LOCK_STRIPES);
+        return new ReentrantLock[] {dayLocks[Math.min(a, b)], dayLocks[Math.max(a, b)]};
+    }
+
+    /**
+     * Waits for a parallel day write, unwrapping its IOException.
+     */
+    private void awaitWrite(Future<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while saving entries", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Error saving entries: " + cause.getMessage(), cause);
+        }
     }
 
     /**
      * Loads all entries for a specific date.
+     * Recently used days are served from a bounded cache; the returned list is a fresh copy,
+     * but the entries in it are shared with the cache and should not be modified.
      */
     public List<JournalEntry> loadEntriesForDate(LocalDate date) {
-        String filename = getFilenameForDate(date);
-        File file = new File(filename);
+        List<JournalEntry> cached = dayCache.get(date);
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
         
-        if (!file.exists()) {
+        long readVersion = dataVersion.get();
+        List<JournalEntry> entries = readFromColdStore(date);
+        if (entries == null) {
+            entries = readDayFile(date);
+        }
+        publishLock.lock();
+        try {
+            // A day read while a write was published may be stale, so it is not cached
+            if (dataVersion.get() == readVersion) {
+                dayCache.put(date, entries);
+            }
+        } finally {
+            publishLock.unlock();
+        }
+        return entries;
+    }
+
+    /**
+     * Loads the entries of a date for a history scan. Hot days are served from the day cache,
+     * but other days are kept only in the off-heap cold tier so a scan does not evict hot days.
+     * @param lazy If true, days not in the day cache are returned as {@link LazyJournalEntry} views
+     */
+    List<JournalEntry> loadEntriesForScan(LocalDate date, boolean lazy) {
+        List<JournalEntry> cached = dayCache.peek(date);
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
+        
+        byte[] encoded = coldDayStore.get(date);
+        if (encoded != null) {
+            List<JournalEntry> entries = decodeDay(new String(encoded, StandardCharsets.UTF_8), lazy);
+            if (entries != null) {
+                return entries;
+            }
+            coldDayStore.invalidate(date);
+        }
+        
+        long readVersion = dataVersion.get();
+        String json = readDayText(date);
+        if (json == null) {
             return new ArrayList<>();
         }
+        publishLock.lock();
+        try {
+            if (dataVersion.get() == readVersion) {
+                coldDayStore.put(date, json.getBytes(StandardCharsets.UTF_8));
+            }
+        } finally {
+            publishLock.unlock();
+        }
+        List<JournalEntry> entries = decodeDay(json, lazy);
+        return entries != null ? entries : new ArrayList<>();
+    }
 
-        try (Reader reader = new FileReader(file)) {
-            List<JournalEntry> entries = gson.fromJson(reader, 
-                new TypeToken<List<JournalEntry>>(){}.getType());
+    /**
+     * Streams entries between two dates (inclusive, null for open ends) as lazily decoded,
+     * read-only views, for stats and category scans that only touch a few fields.
+     */
+    Stream<JournalEntry> scanEntries(LocalDate from, LocalDate to) {
+        EntryCursor cursor = new EntryCursor(this, null, getDatesInRange(from, to), null, true, true);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private List<JournalEntry> readFromColdStore(LocalDate date) {
+        byte[] encoded = coldDayStore.get(date);
+        if (encoded == null) {
+            return null;
+        }
+        List<JournalEntry> entries = decodeDay(new String(encoded, StandardCharsets.UTF_8), false);
+        if (entries == null) {
+            coldDayStore.invalidate(date);
+        }
+        return entries;
+    }
+
+    private byte[] encodeCompact(List<JournalEntry> entries) {
+        return compactGson.toJson(entries, JournalEntryAdapter.LIST_TYPE).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the JSON array of a day, either fully or as lazy views.
+     * Returns null if the text cannot be decoded.
+     */
+    private List<JournalEntry> decodeDay(String json, boolean lazy) {
+        if (lazy) {
+            try {
+                return LazyJournalEntry.parseDay(json);
+            } catch (RuntimeException e) {
+                // Fall back to the full parser, which reports unusual input properly
+            }
+        }
+        try {
+            List<JournalEntry> entries = compactGson.fromJson(json, JournalEntryAdapter.LIST_TYPE);
             return entries != null ? entries : new ArrayList<>();
+        } catch (RuntimeException e) {
+            System.err.println("Error loading entries: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the raw JSON text of a date's file, or returns null if there is none.
+     */
+    private String readDayText(LocalDate date) {
+        File file = getDayFile(date);
+        if (file == null) {
+            return readSegmentDay(date);
+        }
+        try {
+            if (file.getName().endsWith(GZIP_EXTENSION)) {
+                try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+                    return new String(in.readAllBytes(), Charset.defaultCharset());
+                }
+            }
+            return new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset());
         } catch (IOException e) {
             System.err.println("Error loading entries: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the JSON text of a date from its month's segment, or returns null if it has none.
+     */
+    private String readSegmentDay(LocalDate date) {
+        SegmentFile segment = getSegment(YearMonth.from(date));
+        if (segment == null) {
+            return null;
+        }
+        try {
+            return segment.readDay(date);
+        } catch (IOException e) {
+            System.err.println("Error loading entries: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the entries of many dates from disk in parallel, bypassing the cache.
+     * Returns them in date order.
+     */
+    private Map<LocalDate, List<JournalEntry>> readDayFiles(List<LocalDate> dates, boolean lazy) {
+        Map<LocalDate, List<JournalEntry>> entriesByDate = new TreeMap<>();
+        if (dates.size() <= 1) {
+            for (LocalDate date : dates) {
+                entriesByDate.put(date, readDayFile(date, lazy));
+            }
+            return entriesByDate;
+        }
+
+        int threads = Math.min(dates.size(), Runtime.getRuntime().availableProcessors() * 2);
+        ExecutorService executor = TaskExecutors.newBlockingTaskExecutor(threads);
+        try {
+            Map<LocalDate, Future<List<JournalEntry>>> futures = new TreeMap<>();
+            for (LocalDate date : dates) {
+                futures.put(date, executor.submit(() -> readDayFile(date, lazy)));
+            }
+            for (Map.Entry<LocalDate, Future<List<JournalEntry>>> future : futures.entrySet()) {
+                entriesByDate.put(future.getKey(), awaitRead(future.getKey(), future.getValue(), lazy));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return entriesByDate;
+    }
+
+    /**
+     * Waits for a parallel day read. If interrupted, the day is read on the calling thread instead.
+     */
+    private List<JournalEntry> awaitRead(LocalDate date, Future<List<JournalEntry>> future, boolean lazy) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return readDayFile(date, lazy);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Error loading entries for " + date, cause);
+        }
+    }
+
+    /**
+     * Reads the entries of a date from disk, bypassing the cache.
+     */
+    private List<JournalEntry> readDayFile(LocalDate date) {
+        return readDayFile(date, false);
+    }
+
+    private List<JournalEntry> readDayFile(LocalDate date, boolean lazy) {
+        String json = readDayText(date);
+        if (json == null) {
             return new ArrayList<>();
         }
+        List<JournalEntry> entries = decodeDay(json, lazy);
+        return entries != null ? entries : new ArrayList<>();
     }
 
     /**
@@ -76,62 +559,942 @@ public class JournalManager {
     }
 
     /**
-     * Saves all entries for a specific date.
+     * Saves all entries for a specific date in the current output format.
+     */
+    private long saveEntriesForDate(LocalDate date, List<JournalEntry> entries) throws IOException {
+        return saveEntriesForDate(date, entries, outputFormat);
+    }
+
+    /**
+     * Saves all entries for a specific date in the given format.
+     * @return the data version of the write
+     */
+    private long saveEntriesForDate(LocalDate date, List<JournalEntry> entries, OutputFormat format) throws IOException {
+        Map<LocalDate, List<JournalEntry>> days = new TreeMap<>();
+        days.put(date, entries);
+        return saveDays(days, format);
+    }
+
+    /**
+     * A day written to a temporary file, waiting to replace the day's file.
      */
-    private void saveEntriesForDate(LocalDate date, List<JournalEntry> entries) throws IOException {
-        String filename = getFilenameForDate(date);
+    private static class PendingDay {
+        private final LocalDate date;
+        private final List<JournalEntry> entries;
+        private final File tempFile;
+        private final File file;
+        private final File otherFile;
+
+        PendingDay(LocalDate date, List<JournalEntry> entries, File tempFile, File file, File otherFile) {
+            this.date = date;
+            this.entries = entries;
+            this.tempFile = tempFile;
+            this.file = file;
+            this.otherFile = otherFile;
+        }
+    }
+
+    /**
+     * Saves the entries of several dates as one change. Each day is written to a temporary file first
+     * and then replaces its file, so readers never see a half-written day, and all days are published
+     * under one data version, so a snapshot sees either all of them or none.
+     * @return the data version of the write
+     */
+    private long saveDays(Map<LocalDate, List<JournalEntry>> days, OutputFormat format) throws IOException {
+        List<PendingDay> pendingDays = new ArrayList<>();
+        long version;
+        try {
+            for (Map.Entry<LocalDate, List<JournalEntry>> day : days.entrySet()) {
+                assignIds(day.getValue());
+                pendingDays.add(writeTempDay(day.getKey(), day.getValue(), format));
+            }
+            version = publishDays(pendingDays);
+        } catch (IOException e) {
+            for (PendingDay day : pendingDays) {
+                day.tempFile.delete();
+            }
+            for (LocalDate date : days.keySet()) {
+                dayCache.invalidate(date);
+                coldDayStore.invalidate(date);
+            }
+            throw e;
+        }
         
-        try (Writer writer = new FileWriter(filename)) {
-            gson.toJson(entries, writer);
+        for (Map.Entry<LocalDate, List<JournalEntry>> day : days.entrySet()) {
+            updateDerivedData(day.getKey(), day.getValue(), version);
         }
+        return version;
+    }
+
+    private PendingDay writeTempDay(LocalDate date, List<JournalEntry> entries, OutputFormat format) throws IOException {
+        String basename = dataDir.getPath() + File.separator + date.format(DATE_FORMATTER);
+        File file = new File(basename + (format == OutputFormat.GZIP ? GZIP_EXTENSION : JSON_EXTENSION));
+        File otherFile = new File(basename + (format == OutputFormat.GZIP ? JSON_EXTENSION : GZIP_EXTENSION));
+        File tempFile = File.createTempFile(date.format(DATE_FORMATTER) + "-", ".tmp", dataDir);
+        
+        try {
+            if (format == OutputFormat.GZIP) {
+                try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tempFile)),
+                        Charset.defaultCharset())) {
+                    compactGson.toJson(entries, JournalEntryAdapter.LIST_TYPE, writer);
+                }
+            } else {
+                try (Writer writer = new FileWriter(tempFile)) {
+                    Gson writerGson = format == OutputFormat.PRETTY ? gson : compactGson;
+                    writerGson.toJson(entries, JournalEntryAdapter.LIST_TYPE, writer);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            tempFile.delete();
+            throw e;
+        }
+        return new PendingDay(date, entries, tempFile, file, otherFile);
+    }
+
+    /**
+     * Moves written days into place and bumps the data version.
+     * Open snapshots are handed the previous version of each day before it is replaced.
+     * @return the new data version
+     */
+    private long publishDays(List<PendingDay> pendingDays) throws IOException {
+        publishLock.lock();
+        try {
+            if (!openSnapshots.isEmpty()) {
+                for (PendingDay day : pendingDays) {
+                    List<JournalEntry> previous = dayCache.peek(day.date);
+                    if (previous == null) {
+                        previous = List.copyOf(readDayFile(day.date));
+                    }
+                    for (JournalSnapshot snapshot : openSnapshots) {
+                        snapshot.preserve(day.date, previous);
+                    }
+                }
+            }
+            
+            for (PendingDay day : pendingDays) {
+                writtenDates.add(day.date);
+                Files.move(day.tempFile.toPath(), day.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                // The day now lives in the new file only
+                Files.deleteIfExists(day.otherFile.toPath());
+                dayCache.put(day.date, day.entries);
+                coldDayStore.invalidate(day.date);
+            }
+            return dataVersion.incrementAndGet();
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Opens a point-in-time view of the journal. Reads through it see the data as of now
+     * while saves continue; close it when done.
+     */
+    public JournalSnapshot openSnapshot() {
+        publishLock.lock();
+        try {
+            JournalSnapshot snapshot = new JournalSnapshot(this, dataVersion.get());
+            openSnapshots.add(snapshot);
+            return snapshot;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    void closeSnapshot(JournalSnapshot snapshot) {
+        openSnapshots.remove(snapshot);
     }
 
     /**
-     * Gets the filename for a specific date.
+     * Brings the derived indexes up to date with the stored entries of a day.
      */
-    private String getFilenameForDate(LocalDate date) {
-        return DATA_DIR + File.separator + date.format(DATE_FORMATTER) + ".json";
+    private void updateDerivedData(LocalDate date, List<JournalEntry> entries, long version) {
+        long stamp = getDayStamp(date);
+        Map<LocalDate, Long> stamps = currentStamps;
+        if (stamps != null) {
+            if (stamp == 0L) {
+                stamps.remove(date);
+            } else {
+                stamps.put(date, stamp);
+            }
+        }
+        for (DerivedIndex index : derivedIndexes) {
+            index.updateDay(date, entries, stamp);
+        }
+        if (!derivedIndexes.isEmpty()) {
+            checkpoint.markDirty();
+        }
+        queueChange(JournalChange.dayChanged(date, version));
+    }
+
+    /**
+     * Checkpoints derived data (rollups, indexes) after a write if the last checkpoint is old enough,
+     * then publishes the queued changes.
+     */
+    private void flushDerivedData() {
+        checkpoint.writeIfDue(derivedIndexes, checkpointIntervalMillis);
+        publishChanges();
+    }
+
+    /**
+     * Writes the state checkpoint now if derived data changed since it was last written,
+     * so the next start does not re-index the days saved since. Call before exiting.
+     */
+    public void checkpoint() {
+        checkpoint.write(derivedIndexes);
+    }
+
+    /**
+     * Registers a listener for changes to the journal data.
+     */
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    private void queueChange(JournalChange change) {
+        synchronized (pendingChanges) {
+            pendingChanges.add(change);
+        }
+    }
+
+    /**
+     * Hands the queued changes to the listeners as one coalesced batch.
+     * A failing listener does not affect the write or the other listeners.
+     */
+    private void publishChanges() {
+        List<JournalChange> changes;
+        synchronized (pendingChanges) {
+            if (pendingChanges.isEmpty()) {
+                return;
+            }
+            changes = JournalChange.coalesce(pendingChanges);
+            pendingChanges.clear();
+        }
+        for (ChangeListener listener : changeListeners) {
+            try {
+                listener.onJournalChanged(changes);
+            } catch (RuntimeException e) {
+                System.err.println("Error in change listener: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Changes how day files are written from now on. Existing files are left as they are.
+     */
+    public void setOutputFormat(OutputFormat outputFormat) {
+        this.outputFormat = outputFormat;
+    }
+
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    /**
+     * Gets the directory holding this journal's data files.
+     */
+    public File getDataDir() {
+        return dataDir;
+    }
+
+    /**
+     * Rewrites the day files of a month as gzip-compressed JSON, e.g. to archive a closed month.
+     * @return the number of day files rewritten
+     */
+    public int compressMonth(YearMonth month) throws IOException {
+        int rewritten = 0;
+        seedEntryIds();
+        try {
+            for (LocalDate date : getDatesInRange(month.atDay(1), month.atEndOfMonth())) {
+                ReentrantLock lock = dayLock(date);
+                lock.lock();
+                try {
+                    File file = getDayFile(date);
+                    if (file != null && !file.getName().endsWith(GZIP_EXTENSION)) {
+                        saveEntriesForDate(date, readDayFile(date), OutputFormat.GZIP);
+                        rewritten++;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            flushDerivedData();
+        }
+        return rewritten;
+    }
+
+    /**
+     * Compacts the days of a closed month into a single segment file with a day offset table,
+     * removing the individual day files. Days saved later go to day files again, which take
+     * precedence over the segment until the month is compacted again.
+     * Days are gzip-compressed inside the segment if the output format is GZIP.
+     * @return the number of days in the segment
+     * @throws IllegalArgumentException if the month is the current month or later
+     */
+    public int compactMonth(YearMonth month) throws IOException {
+        if (!month.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("Only closed months can be compacted: " + month);
+        }
+        seedEntryIds();
+
+        // Writers of the month's days wait until the segment has replaced the day files,
+        // so no day saved meanwhile is deleted with them
+        List<ReentrantLock> locks = monthLocks(month);
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            List<LocalDate> dates = getDatesInRange(month.atDay(1), month.atEndOfMonth());
+            Map<LocalDate, List<JournalEntry>> entriesByDate = new TreeMap<>();
+            TreeMap<LocalDate, byte[]> encodedDays = new TreeMap<>();
+            for (LocalDate date : dates) {
+                String json = readDayText(date);
+                List<JournalEntry> entries = json != null ? decodeDay(json, false) : null;
+                if (entries == null) {
+                    throw new IOException("Cannot read " + date + ", leaving " + month + " as it is");
+                }
+                if (!entries.isEmpty()) {
+                    entriesByDate.put(date, entries);
+                    assignIds(entries);
+                    encodedDays.put(date, encodeCompact(entries));
+                }
+            }
+
+            long version = publishSegment(month, encodedDays);
+            try {
+                for (LocalDate date : dates) {
+                    deleteDayFiles(date);
+                    if (!encodedDays.containsKey(date)) {
+                        writtenDates.remove(date);
+                    }
+                }
+            } finally {
+                for (LocalDate date : dates) {
+                    updateDerivedData(date, entriesByDate.getOrDefault(date, new ArrayList<>()), version);
+                }
+            }
+            return encodedDays.size();
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+            flushDerivedData();
+        }
+    }
+
+    /**
+     * Gets the locks of every day of a month, in the order of {@link #dayLocks(Collection)}.
+     */
+    private List<ReentrantLock> monthLocks(YearMonth month) {
+        List<LocalDate> dates = new ArrayList<>(month.lengthOfMonth());
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            dates.add(month.atDay(day));
+        }
+        return dayLocks(dates);
+    }
+
+    /**
+     * Gets the locks of many days in stripe order, the order {@link #dayLocks(LocalDate, LocalDate)}
+     * also uses, so locking a whole month or batch cannot deadlock with writers of one or two days.
+     */
+    private List<ReentrantLock> dayLocks(Collection<LocalDate> dates) {
+        Set<Integer> stripes = new TreeSet<>();
+        for (LocalDate date : dates) {
+            stripes.add(Math.floorMod(date.hashCode(), DAY_LOCK_STRIPES));
+        }
+        List<ReentrantLock> locks = new ArrayList<>(stripes.size());
+        for (int stripe : stripes) {
+            locks.add(dayLocks[stripe]);
+        }
+        return locks;
+    }
+
+    /**
+     * Writes the days of a month to a temporary segment file and moves it into place,
+     * or removes the month's segment if there are no days.
+     * @return the new data version
+     */
+    private long publishSegment(YearMonth month, SortedMap<LocalDate, byte[]> encodedDays) throws IOException {
+        File tempFile = null;
+        if (!encodedDays.isEmpty()) {
+            tempFile = File.createTempFile(month.format(MONTH_FORMATTER) + "-", ".tmp", dataDir);
+            try {
+                SegmentFile.write(tempFile, encodedDays, outputFormat == OutputFormat.GZIP);
+            } catch (IOException | RuntimeException e) {
+                tempFile.delete();
+                throw e;
+            }
+        }
+
+        File segmentFile = getSegmentFile(month);
+        publishLock.lock();
+        try {
+            segmentLock.lock();
+            try {
+                closeSegment(month);
+                if (tempFile == null) {
+                    Files.deleteIfExists(segmentFile.toPath());
+                } else {
+                    Files.move(tempFile.toPath(), segmentFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                segmentLock.unlock();
+            }
+            return dataVersion.incrementAndGet();
+        } catch (IOException e) {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+            throw e;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Compacts every closed month that still has individual day files.
+     * @return the number of months compacted
+     */
+    public int compactClosedMonths() throws IOException {
+        YearMonth current = YearMonth.now();
+        Set<YearMonth> months = new TreeSet<>();
+        for (LocalDate date : getAvailableDates()) {
+            YearMonth month = YearMonth.from(date);
+            if (month.isBefore(current) && getDayFile(date) != null) {
+                months.add(month);
+            }
+        }
+        for (YearMonth month : months) {
+            compactMonth(month);
+        }
+        return months.size();
+    }
+
+    /**
+     * Changes the limits of the day cache. A limit of 0 disables caching.
+     */
+    public void configureDayCache(int maxDays, long maxBytes) {
+        dayCache.setLimits(maxDays, maxBytes);
+    }
+
+    /**
+     * Changes the size limit of the off-heap cold tier. A limit of 0 disables it.
+     */
+    public void configureColdStore(long maxBytes) {
+        coldDayStore.setMaxBytes(maxBytes);
+    }
+
+    /**
+     * Changes the byte limits of both cache tiers, keeping the day cache's day limit.
+     * Used by {@link JournalShards} to hand each journal its share of a global budget.
+     */
+    void setCacheBudget(long heapBytes, long coldBytes) {
+        dayCache.setLimits(dayCache.getMaxDays(), heapBytes);
+        coldDayStore.setMaxBytes(coldBytes);
+    }
+
+    /**
+     * Gets a summary of the cold tier's size and hit/miss counts.
+     */
+    public String getColdStoreStats() {
+        return coldDayStore.toString();
+    }
+
+    /**
+     * Gets hit/miss statistics of the day cache.
+     */
+    public DayCache.Stats getDayCacheStats() {
+        return dayCache.getStats();
+    }
+
+    /**
+     * Gets the precomputed daily/weekly/monthly rollups, loading or rebuilding them on first use.
+     */
+    public synchronized RollupStore getRollups() {
+        if (rollupStore == null) {
+            rollupStore = openIndex(new RollupStore());
+        }
+        return rollupStore;
+    }
+
+    /**
+     * Gets a counter that increases whenever this manager writes journal data,
+     * e.g. to tell clients whether a cached response is still current.
+     */
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    /**
+     * Gets the entry id index, loading or rebuilding it on first use.
+     * Days still holding entries without an id (written before ids existed) are rewritten once with ids.
+     */
+    public synchronized EntryIdIndex getEntryIds() {
+        if (entryIdIndex == null) {
+            entryIdIndex = openIndex(new EntryIdIndex());
+            // New ids continue after the stored ones, even if the clock went back since they were created
+            lastEntryId.accumulateAndGet(entryIdIndex.getMaxId(), Math::max);
+            try {
+                for (LocalDate date : entryIdIndex.getDaysMissingIds()) {
+                    ReentrantLock lock = dayLock(date);
+                    lock.lock();
+                    try {
+                        saveEntriesForDate(date, readDayFile(date));
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Error assigning entry ids: " + e.getMessage());
+            } finally {
+                flushDerivedData();
+            }
+        }
+        return entryIdIndex;
+    }
+
+    /**
+     * Gets an entry by its id, or returns null if there is none.
+     */
+    public JournalEntry getEntry(long id) {
+        EntryIdIndex.Location location = getEntryIds().find(id);
+        if (location == null) {
+            return null;
+        }
+        List<JournalEntry> entries = loadEntriesForDate(location.getDate());
+        int position = positionOf(entries, id, location.getPosition());
+        return position >= 0 ? entries.get(position) : null;
+    }
+
+    /**
+     * Replaces an entry, keeping its id. Only the day holding the entry is rewritten,
+     * or, if the new start time falls on another date, that day and the new one.
+     * @return false if there is no entry with this id
+     */
+    public boolean updateEntry(long id, JournalEntry updated) throws IOException {
+        LocalDate newDate = updated.getStartTime().toLocalDate();
+        try {
+            for (int attempt = 0; attempt < MAX_LOCATE_ATTEMPTS; attempt++) {
+                EntryIdIndex.Location location = getEntryIds().find(id);
+                if (location == null) {
+                    return false;
+                }
+                LocalDate date = location.getDate();
+                ReentrantLock[] locks = dayLocks(date, newDate);
+                locks[0].lock();
+                locks[1].lock();
+                try {
+                    List<JournalEntry> entries = loadEntriesForDate(date);
+                    int position = positionOf(entries, id, location.getPosition());
+                    if (position < 0) {
+                        continue; // Moved by another writer meanwhile, look it up again
+                    }
+
+                    updated.setId(id);
+                    JournalEntry previous;
+                    long version;
+                    if (newDate.equals(date)) {
+                        previous = entries.set(position, updated);
+                        version = saveEntriesForDate(date, entries);
+                    } else {
+                        // Both days are replaced together, so the entry is never missing or doubled
+                        previous = entries.remove(position);
+                        List<JournalEntry> newEntries = loadEntriesForDate(newDate);
+                        newEntries.add(updated);
+                        Map<LocalDate, List<JournalEntry>> days = new TreeMap<>();
+                        days.put(date, entries);
+                        days.put(newDate, newEntries);
+                        version = saveDays(days, outputFormat);
+                    }
+                    queueChange(JournalChange.entryUpdated(previous, updated, version));
+                    return true;
+                } finally {
+                    locks[1].unlock();
+                    locks[0].unlock();
+                }
+            }
+            return false;
+        } finally {
+            flushDerivedData();
+        }
+    }
+
+    /**
+     * Deletes an entry. Only the day holding the entry is rewritten.
+     * @return false if there is no entry with this id
+     */
+    public boolean deleteEntry(long id) throws IOException {
+        try {
+            for (int attempt = 0; attempt < MAX_LOCATE_ATTEMPTS; attempt++) {
+                EntryIdIndex.Location location = getEntryIds().find(id);
+                if (location == null) {
+                    return false;
+                }
+                ReentrantLock lock = dayLock(location.getDate());
+                lock.lock();
+                try {
+                    List<JournalEntry> entries = loadEntriesForDate(location.getDate());
+                    int position = positionOf(entries, id, location.getPosition());
+                    if (position < 0) {
+                        continue; // Moved by another writer meanwhile, look it up again
+                    }
+
+                    JournalEntry removed = entries.remove(position);
+                    long version = saveEntriesForDate(location.getDate(), entries);
+                    queueChange(JournalChange.entryRemoved(removed, version));
+                    return true;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return false;
+        } finally {
+            flushDerivedData();
+        }
+    }
+
+    /**
+     * Finds the position of an entry within its day, checking the indexed position first.
+     */
+    private int positionOf(List<JournalEntry> entries, long id, int indexedPosition) {
+        if (indexedPosition < entries.size() && entries.get(indexedPosition).getId() == id) {
+            return indexedPosition;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).getId() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gives every entry without an id a new one.
+     */
+    private void assignIds(List<JournalEntry> entries) {
+        for (JournalEntry entry : entries) {
+            if (entry.getId() == 0) {
+                entry.setId(nextEntryId());
+            }
+        }
+    }
+
+    /**
+     * Opens the entry id index, which seeds the id counter with the highest stored id, before the first
+     * new id is assigned. Writers call it before taking any day lock, as opening the index takes the
+     * manager's monitor.
+     */
+    private void seedEntryIds() {
+        if (entryIdIndex == null) {
+            getEntryIds();
+        }
+    }
+
+    /**
+     * Creates a new entry id: milliseconds since the epoch in the high bits and a counter
+     * in the low 16 bits, so ids are unique within this manager and ordered by creation time.
+     * The counter starts after the highest stored id (see {@link #seedEntryIds}).
+     */
+    private long nextEntryId() {
+        return lastEntryId.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis() << 16));
+    }
+
+    /**
+     * Gets the full-text search index, loading or rebuilding it on first use.
+     */
+    public synchronized SearchIndex getSearchIndex() {
+        if (searchIndex == null) {
+            searchIndex = openIndex(new SearchIndex());
+        }
+        return searchIndex;
+    }
+
+    /**
+     * Searches activity types and notes, loading only the days that contain hits.
+     * @see SearchIndex#search(String, LocalDate, LocalDate)
+     */
+    public List<JournalEntry> searchEntries(String query, LocalDate from, LocalDate to) {
+        List<JournalEntry> results = new ArrayList<>();
+        LocalDate loadedDate = null;
+        List<JournalEntry> dayEntries = new ArrayList<>();
+        
+        for (SearchIndex.SearchHit hit : getSearchIndex().search(query, from, to)) {
+            if (!hit.getDate().equals(loadedDate)) {
+                loadedDate = hit.getDate();
+                dayEntries = loadEntriesForDate(loadedDate);
+            }
+            if (hit.getEntryIndex() < dayEntries.size()) {
+                results.add(dayEntries.get(hit.getEntryIndex()));
+            }
+        }
+        
+        return results;
+    }
+
+    /**
+     * Gets the per-activity index behind the lifetime category tree, loading or rebuilding it on first use.
+     */
+    synchronized CategoryIndex getCategoryIndex() {
+        if (categoryIndex == null) {
+            categoryIndex = openIndex(new CategoryIndex());
+        }
+        return categoryIndex;
+    }
+
+    /**
+     * Loads a derived index from the checkpoint, re-indexes any day whose data file was added,
+     * changed or removed since it was checkpointed, and registers it for updates on later writes.
+     * The index is registered before re-indexing, so checkpoints written meanwhile keep its section
+     * and days saved meanwhile reach it; days whose stamp changed while re-indexing are read again.
+     */
+    private <T extends DerivedIndex> T openIndex(T index) {
+        Map<LocalDate, Long> indexedStamps = index.load(checkpoint.takeSection(index.getName()));
+        derivedIndexes.add(index);
+        Map<LocalDate, Long> stamps = getCurrentStamps();
+        Map<LocalDate, Long> appliedStamps = new TreeMap<>();
+        
+        for (LocalDate date : indexedStamps.keySet()) {
+            if (!stamps.containsKey(date)) {
+                index.updateDay(date, new ArrayList<>(), 0L);
+                appliedStamps.put(date, 0L);
+            }
+        }
+        Map<LocalDate, Long> changedStamps = new TreeMap<>();
+        for (Map.Entry<LocalDate, Long> day : stamps.entrySet()) {
+            Long indexedStamp = indexedStamps.get(day.getKey());
+            if (indexedStamp == null || !indexedStamp.equals(day.getValue())) {
+                changedStamps.put(day.getKey(), day.getValue());
+            }
+        }
+        
+        // Changed days are read in parallel, a bounded number at a time
+        List<LocalDate> changedDates = new ArrayList<>(changedStamps.keySet());
+        for (int i = 0; i < changedDates.size(); i += REINDEX_BATCH_DAYS) {
+            List<LocalDate> batch = changedDates.subList(i, Math.min(i + REINDEX_BATCH_DAYS, changedDates.size()));
+            for (Map.Entry<LocalDate, List<JournalEntry>> day : readDayFiles(batch, true).entrySet()) {
+                index.updateDay(day.getKey(), day.getValue(), changedStamps.get(day.getKey()));
+            }
+        }
+        appliedStamps.putAll(changedStamps);
+        
+        // A day saved while it was re-indexed may have been overwritten with what was read before
+        for (Map.Entry<LocalDate, Long> day : appliedStamps.entrySet()) {
+            if (currentStamps.getOrDefault(day.getKey(), 0L).equals(day.getValue())) {
+                continue;
+            }
+            ReentrantLock lock = dayLock(day.getKey());
+            lock.lock();
+            try {
+                index.updateDay(day.getKey(), readDayFile(day.getKey()), getDayStamp(day.getKey()));
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        if (!appliedStamps.isEmpty()) {
+            checkpoint.markDirty();
+        }
+        checkpoint.writeIfDue(derivedIndexes, checkpointIntervalMillis);
+        return index;
+    }
+
+    /**
+     * Gets the data file stamp of every day with data, listing and checking the files only once,
+     * so opening several indexes validates their checkpoints against the same pass.
+     */
+    private synchronized Map<LocalDate, Long> getCurrentStamps() {
+        if (currentStamps == null) {
+            // Published first so writes made while listing record their stamps too;
+            // each listed stamp is taken under the day's lock, so it cannot overwrite a newer one
+            Map<LocalDate, Long> stamps = new ConcurrentHashMap<>();
+            currentStamps = stamps;
+            for (LocalDate date : getAvailableDates()) {
+                ReentrantLock lock = dayLock(date);
+                lock.lock();
+                try {
+                    long stamp = getDayStamp(date);
+                    if (stamp != 0L) {
+                        stamps.put(date, stamp);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        return new HashMap<>(currentStamps);
+    }
+
+    /**
+     * Gets a stamp that changes whenever the data file of a date changes, or 0 if there is none.
+     */
+    long getDayStamp(LocalDate date) {
+        File file = getDayFile(date);
+        if (file == null) {
+            SegmentFile segment = getSegment(YearMonth.from(date));
+            return segment != null ? segment.getDayStamp(date) : 0L;
+        }
+        return 31 * file.lastModified() + file.length();
+    }
+
+    /**
+     * Gets the data file of a date, plain or gzip-compressed, or null if there is none.
+     * If an interrupted rewrite left both, the newer one wins.
+     */
+    private File getDayFile(LocalDate date) {
+        String basename = dataDir.getPath() + File.separator + date.format(DATE_FORMATTER);
+        File plain = new File(basename + JSON_EXTENSION);
+        File compressed = new File(basename + GZIP_EXTENSION);
+        if (!compressed.exists()) {
+            return plain.exists() ? plain : null;
+        }
+        if (plain.exists() && plain.lastModified() > compressed.lastModified()) {
+            return plain;
+        }
+        return compressed;
+    }
+
+    private void deleteDayFiles(LocalDate date) throws IOException {
+        String basename = dataDir.getPath() + File.separator + date.format(DATE_FORMATTER);
+        Files.deleteIfExists(new File(basename + JSON_EXTENSION).toPath());
+        Files.deleteIfExists(new File(basename + GZIP_EXTENSION).toPath());
+    }
+
+    /**
+     * Gets the segment of a month, opening it or reopening it if the file changed,
+     * or returns null if the month has no segment.
+     */
+    private SegmentFile getSegment(YearMonth month) {
+        File file = getSegmentFile(month);
+        SegmentFile segment = segments.get(month);
+        if (segment != null && segment.isCurrent() && file.exists()) {
+            return segment;
+        }
+
+        segmentLock.lock();
+        try {
+            segment = segments.get(month);
+            if (segment != null && segment.isCurrent() && file.exists()) {
+                return segment;
+            }
+            closeSegment(month);
+            if (!file.exists()) {
+                return null;
+            }
+            try {
+                segment = SegmentFile.open(file);
+                segments.put(month, segment);
+                return segment;
+            } catch (IOException e) {
+                System.err.println("Error opening segment: " + e.getMessage());
+                return null;
+            }
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    private void closeSegment(YearMonth month) {
+        SegmentFile segment = segments.remove(month);
+        if (segment != null) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                System.err.println("Error closing segment: " + e.getMessage());
+            }
+        }
+    }
+
+    private File getSegmentFile(YearMonth month) {
+        return new File(dataDir, month.format(MONTH_FORMATTER) + SegmentFile.EXTENSION);
     }
 
     /**
      * Gets all available dates that have journal entries.
      */
     public List<LocalDate> getAvailableDates() {
-        File dataDir = new File(DATA_DIR);
         if (!dataDir.exists()) {
             return new ArrayList<>();
         }
 
-        File[] files = dataDir.listFiles((dir, name) -> name.endsWith(".json"));
+        File[] files = dataDir.listFiles((dir, name) -> name.endsWith(JSON_EXTENSION) || name.endsWith(GZIP_EXTENSION)
+                || name.endsWith(SegmentFile.EXTENSION));
         if (files == null) {
             return new ArrayList<>();
         }
 
-        List<LocalDate> dates = new ArrayList<>();
+        Set<LocalDate> dates = new TreeSet<>();
         for (File file : files) {
             try {
-                String dateStr = file.getName().replace(".json", "");
+                String name = file.getName();
+                if (name.endsWith(SegmentFile.EXTENSION)) {
+                    YearMonth month = YearMonth.parse(name.substring(0, name.length() - SegmentFile.EXTENSION.length()),
+                            MONTH_FORMATTER);
+                    SegmentFile segment = getSegment(month);
+                    if (segment != null) {
+                        dates.addAll(segment.getDates());
+                    }
+                    continue;
+                }
+                String dateStr = name.substring(0, name.length()
+                        - (name.endsWith(GZIP_EXTENSION) ? GZIP_EXTENSION.length() : JSON_EXTENSION.length()));
                 LocalDate date = LocalDate.parse(dateStr, DATE_FORMATTER);
                 dates.add(date);
             } catch (Exception e) {
                 // Skip invalid filenames
             }
         }
-        return dates.stream().sorted().collect(Collectors.toList());
+        dates.addAll(writtenDates);
+        return new ArrayList<>(dates);
     }
 
     /**
      * Loads all journal entries from all available dates.
+     * Prefer {@link #streamEntries} or {@link #openCursor} for large histories.
      */
     public List<JournalEntry> loadAllEntries() {
-        List<JournalEntry> allEntries = new ArrayList<>();
+        return streamEntries(null, null, true).collect(Collectors.toList());
+    }
+
+    /**
+     * Opens a cursor over the entries between two dates (inclusive, null for open ends).
+     * Day files are read lazily as the cursor advances.
+     */
+    public EntryCursor openCursor(LocalDate from, LocalDate to, boolean ascending) {
+        return new EntryCursor(this, getDatesInRange(from, to), null, ascending);
+    }
+
+    /**
+     * Opens a cursor that resumes at a position returned by {@link EntryCursor#getPosition()}.
+     * @param end Last date to visit in the direction of iteration, or null for no limit
+     */
+    public EntryCursor resumeCursor(EntryCursor.Position start, LocalDate end, boolean ascending) {
+        List<LocalDate> dates = ascending
+                ? getDatesInRange(start != null ? start.getDate() : null, end)
+                : getDatesInRange(end, start != null ? start.getDate() : null);
+        return new EntryCursor(this, dates, start, ascending);
+    }
+
+    /**
+     * Streams the entries between two dates (inclusive, null for open ends) in date order,
+     * reading one day file at a time.
+     */
+    public Stream<JournalEntry> streamEntries(LocalDate from, LocalDate to, boolean ascending) {
+        EntryCursor cursor = openCursor(from, to, ascending);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Gets the available dates between two dates (inclusive, null for open ends).
+     */
+    public List<LocalDate> getDatesInRange(LocalDate from, LocalDate to) {
         List<LocalDate> dates = getAvailableDates();
-        
-        for (LocalDate date : dates) {
-            allEntries.addAll(loadEntriesForDate(date));
-        }
-        
-        return allEntries;
+        dates.removeIf(date -> (from != null && date.isBefore(from)) || (to != null && date.isAfter(to)));
+        return dates;
     }
 
     /**
@@ -169,6 +1532,49 @@ public class JournalManager {
         return collisions;
     }
 
+    /**
+     * Checks many new entries for collisions at once, loading each affected date only once.
+     * Entries are checked in order against the stored entries and against earlier entries of
+     * the same batch, as if they had been saved one by one skipping those that collide.
+     * Returns the colliding entries keyed by the new entry; entries without collisions are absent.
+     */
+    public Map<JournalEntry, List<JournalEntry>> checkCollisions(Collection<JournalEntry> newEntries) {
+        Map<JournalEntry, List<JournalEntry>> collisions = new IdentityHashMap<>();
+        List<JournalEntry> timedEntries = newEntries.stream()
+                .filter(e -> e.getStartTime() != null && e.getEndTime() != null)
+                .collect(Collectors.toList());
+        
+        for (Map.Entry<LocalDate, List<JournalEntry>> day : groupByDate(timedEntries).entrySet()) {
+            List<JournalEntry> existingEntries = loadEntriesForDate(day.getKey());
+            
+            for (JournalEntry newEntry : day.getValue()) {
+                List<JournalEntry> conflicts = new ArrayList<>();
+                for (JournalEntry existing : existingEntries) {
+                    if (overlaps(newEntry, existing)) {
+                        conflicts.add(existing);
+                    }
+                }
+                if (conflicts.isEmpty()) {
+                    existingEntries.add(newEntry);
+                } else {
+                    collisions.put(newEntry, conflicts);
+                }
+            }
+        }
+        
+        return collisions;
+    }
+
+    /**
+     * Returns true if two entries with start and end times overlap.
+     */
+    private boolean overlaps(JournalEntry a, JournalEntry b) {
+        if (b.getStartTime() == null || b.getEndTime() == null) {
+            return false;
+        }
+        return a.getStartTime().isBefore(b.getEndTime()) && a.getEndTime().isAfter(b.getStartTime());
+    }
+
     /**
      * Gets the end time of the last activity for a specific date.
      * Returns null if no activities exist for that date.
@@ -0,0 +1,530 @@
+package com.journal;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Headless HTTP server exposing the journal as JSON, for scripts and dashboards.
+ *
+ * <ul>
+ *   <li>{@code GET /entries?date=} or {@code ?from=&to=} - entries, streamed as a JSON array</li>
+ *   <li>{@code POST /entries[?force=true]} - saves an entry or an array of entries; 409 on collisions unless forced</li>
+ *   <li>{@code GET|PUT|DELETE /entries/{id}} - a single entry by id</li>
+ *   <li>{@code POST /collisions} - checks an entry or an array of entries for collisions without saving</li>
+ *   <li>{@code GET /stats/day?date=}, {@code /stats/range?from=&to=}, {@code /stats/lifetime} - statistics</li>
+ *   <li>{@code GET /categories[?from=&to=&depth=]} - the category tree</li>
+ * </ul>
+ *
+ * Requests run on a bounded worker pool; when it is full, the accepting thread runs the request itself,
+ * which slows down clients instead of dropping them. On Java 21 each request runs on its own virtual
+ * thread instead (see {@link TaskExecutors}). Connections are kept alive between requests.
+ * The server has no authentication, so it listens on the loopback interface only, unless the
+ * {@code journal.server.host} system property names another address to listen on.
+ * GET responses carry an ETag derived from the data version, so unchanged data is answered with 304.
+ */
+public class JournalServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int QUEUE_CAPACITY = 100;
+    private static final int DEFAULT_MAX_RANGE_DAYS = 3660;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private final JournalManager journalManager;
+    private final AnalysisService analysisService;
+    private final JournalEntryAdapter entryAdapter = new JournalEntryAdapter();
+    private final Gson gson;
+    // Distinguishes ETags of different server runs, since the data version restarts at 0
+    private final String instanceTag = Long.toString(System.currentTimeMillis(), 36);
+    // Range timelines are computed day by day, so one request must not ask for millions of days
+    private final int maxRangeDays = Integer.getInteger("journal.server.maxRangeDays", DEFAULT_MAX_RANGE_DAYS);
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public JournalServer(JournalManager journalManager, AnalysisService analysisService) {
+        this.journalManager = journalManager;
+        this.analysisService = analysisService;
+        this.gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeHierarchyAdapter(JournalEntry.class, entryAdapter)
+                .create();
+    }
+
+    /**
+     * Starts listening on a port (0 picks a free one) of the loopback interface, or of the host
+     * in the {@code journal.server.host} system property.
+     * The worker count can be set with the {@code journal.server.threads} system property.
+     */
+    public void start(int port) throws IOException {
+        String host = System.getProperty("journal.server.host");
+        InetAddress address = host != null ? InetAddress.getByName(host) : InetAddress.getLoopbackAddress();
+        int threads = Integer.getInteger("journal.server.threads",
+                Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        executor = TaskExecutors.newRequestExecutor(threads, QUEUE_CAPACITY);
+
+        server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        server.createContext("/entries", handler(this::handleEntries));
+        server.createContext("/collisions", handler(this::handleCollisions));
+        server.createContext("/stats", handler(this::handleStats));
+        server.createContext("/categories", handler(this::handleCategories));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Stops the server, giving running requests up to a second to finish, and checkpoints the journal state.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+            journalManager.checkpoint();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Wraps a handler with error responses and closes the exchange afterwards.
+     */
+    private HttpHandler handler(HttpHandler handler) {
+        return exchange -> {
+            try {
+                handler.handle(exchange);
+            } catch (JsonParseException | DateTimeException | IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (Exception e) {
+                System.err.println("Error handling " + exchange.getRequestURI() + ": " + e.getMessage());
+                sendError(exchange, 500, "Internal error");
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private void handleEntries(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        Map<String, String> params = queryParams(exchange);
+
+        if (!path.equals("/entries") && !path.equals("/entries/")) {
+            handleEntry(exchange, Long.parseLong(path.substring("/entries/".length())));
+        } else if (method.equals("GET")) {
+            streamEntries(exchange, params);
+        } else if (method.equals("POST")) {
+            List<JournalEntry> entries = readEntries(exchange);
+            if (Boolean.parseBoolean(params.get("force"))) {
+                journalManager.saveEntries(entries);
+            } else {
+                // Checked and saved as one step, so concurrent requests cannot both save overlapping entries
+                Map<JournalEntry, List<JournalEntry>> collisions = journalManager.saveEntriesIfNoCollisions(entries);
+                if (!collisions.isEmpty()) {
+                    JsonObject body = new JsonObject();
+                    body.add("collisions", collisionsJson(entries, collisions));
+                    sendJson(exchange, 409, body, null);
+                    return;
+                }
+            }
+
+            JsonArray ids = new JsonArray();
+            entries.forEach(entry -> ids.add(entry.getId()));
+            JsonObject body = new JsonObject();
+            body.addProperty("saved", entries.size());
+            body.add("ids", ids);
+            sendJson(exchange, 201, body, null);
+        } else {
+            sendMethodNotAllowed(exchange, "GET, POST");
+        }
+    }
+
+    private void handleEntry(HttpExchange exchange, long id) throws IOException {
+        switch (exchange.getRequestMethod()) {
+            case "GET": {
+                JournalEntry entry = journalManager.getEntry(id);
+                if (entry == null) {
+                    sendError(exchange, 404, "No entry with id " + id);
+                } else {
+                    String etag = dayTag(entry.getStartTime().toLocalDate());
+                    if (!notModified(exchange, etag)) {
+                        sendJson(exchange, 200, gson.toJsonTree(entry, JournalEntry.class), etag);
+                    }
+                }
+                break;
+            }
+            case "PUT": {
+                List<JournalEntry> entries = readEntries(exchange);
+                if (entries.size() != 1) {
+                    throw new IllegalArgumentException("Expected a single entry");
+                }
+                if (journalManager.updateEntry(id, entries.get(0))) {
+                    sendJson(exchange, 200, gson.toJsonTree(entries.get(0), JournalEntry.class), null);
+                } else {
+                    sendError(exchange, 404, "No entry with id " + id);
+                }
+                break;
+            }
+            case "DELETE":
+                if (journalManager.deleteEntry(id)) {
+                    exchange.sendResponseHeaders(204, -1);
+                } else {
+                    sendError(exchange, 404, "No entry with id " + id);
+                }
+                break;
+            default:
+                sendMethodNotAllowed(exchange, "GET, PUT, DELETE");
+        }
+    }
+
+    /**
+     * Writes the entries of a date or range as a chunked JSON array, one day at a time,
+     * so large ranges are never held in memory.
+     */
+    private void streamEntries(HttpExchange exchange, Map<String, String> params) throws IOException {
+        LocalDate date = parseDate(params.get("date"));
+        LocalDate from = date != null ? date : parseDate(params.get("from"));
+        LocalDate to = date != null ? date : parseDate(params.get("to"));
+        // The body is read from a snapshot, so it matches the version in the ETag
+        // even if entries are saved while it is streamed
+        try (JournalSnapshot snapshot = journalManager.openSnapshot()) {
+            String etag = date != null ? dayTag(date) : versionTag(snapshot.getVersion());
+            if (notModified(exchange, etag)) {
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.sendResponseHeaders(200, 0);
+            EntryCursor cursor = snapshot.openCursor(from, to, true);
+            try (JsonWriter writer = new JsonWriter(new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)))) {
+                writer.beginArray();
+                while (cursor.hasNext()) {
+                    entryAdapter.write(writer, cursor.next());
+                }
+                writer.endArray();
+            }
+        }
+    }
+
+    private void handleCollisions(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendMethodNotAllowed(exchange, "POST");
+            return;
+        }
+        List<JournalEntry> entries = readEntries(exchange);
+        JsonObject body = new JsonObject();
+        body.add("collisions", collisionsJson(entries, journalManager.checkCollisions(entries)));
+        sendJson(exchange, 200, body, null);
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendMethodNotAllowed(exchange, "GET");
+            return;
+        }
+        Map<String, String> params = queryParams(exchange);
+        String path = exchange.getRequestURI().getPath();
+
+        switch (path) {
+            case "/stats/day": {
+                LocalDate date = requireDate(params, "date");
+                // The timeline of a day also depends on the day before
+                String etag = dayTag(date.minusDays(1), date);
+                if (!notModified(exchange, etag)) {
+                    JsonObject body = statsJson(analysisService.getStatsForDate(date));
+                    body.addProperty("date", date.format(DATE_FORMATTER));
+                    body.add("timeline", timelineJson(analysisService.getTimelineStatsForDate(date)));
+                    sendJson(exchange, 200, body, etag);
+                }
+                break;
+            }
+            case "/stats/range": {
+                LocalDate from = requireDate(params, "from");
+                LocalDate to = requireDate(params, "to");
+                if (to.isBefore(from)) {
+                    throw new IllegalArgumentException("The range ends before it starts");
+                }
+                if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+                    throw new IllegalArgumentException("Ranges are limited to " + maxRangeDays + " days");
+                }
+                String etag = versionTag();
+                if (!notModified(exchange, etag)) {
+                    JsonObject body = statsJson(analysisService.getStatsForRange(from, to));
+                    body.addProperty("from", from.format(DATE_FORMATTER));
+                    body.addProperty("to", to.format(DATE_FORMATTER));
+                    body.add("timeline", timelineJson(analysisService.getTimelineStatsForRange(from, to)));
+                    sendJson(exchange, 200, body, etag);
+                }
+                break;
+            }
+            case "/stats/lifetime": {
+                String etag = versionTag();
+                if (!notModified(exchange, etag)) {
+                    JsonObject body = statsJson(analysisService.getLifetimeStats());
+                    body.addProperty("entryCount", journalManager.getRollups().getTotal().getEntryCount());
+                    sendJson(exchange, 200, body, etag);
+                }
+                break;
+            }
+            default:
+                sendError(exchange, 404, "Unknown statistics: " + path);
+        }
+    }
+
+    private void handleCategories(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendMethodNotAllowed(exchange, "GET");
+            return;
+        }
+        Map<String, String> params = queryParams(exchange);
+        LocalDate from = parseDate(params.get("from"));
+        LocalDate to = parseDate(params.get("to"));
+        int depth = params.containsKey("depth") ? Integer.parseInt(params.get("depth")) : Integer.MAX_VALUE;
+        int top = params.containsKey("top") ? Integer.parseInt(params.get("top")) : Integer.MAX_VALUE;
+        List<String> path = CategoryManager.tokenize(params.get("path"));
+        String etag = versionTag();
+        if (notModified(exchange, etag)) {
+            return;
+        }
+
+        JsonObject body = analysisService.readCategoryTree(from, to, root -> {
+            Category category = root;
+            for (int i = 0; i < path.size() && category != null; i++) {
+                category = category.getChildren().get(path.get(i));
+            }
+            return category != null ? categoryJson(category, depth, top) : null;
+        });
+        if (body == null) {
+            sendError(exchange, 404, "Unknown category: " + String.join(" ", path));
+            return;
+        }
+        sendJson(exchange, 200, body, etag);
+    }
+
+    private List<JournalEntry> readEntries(HttpExchange exchange) throws IOException {
+        JsonElement json;
+        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            json = JsonParser.parseReader(reader);
+        }
+
+        List<JournalEntry> entries = new ArrayList<>();
+        if (json.isJsonArray()) {
+            for (JsonElement element : json.getAsJsonArray()) {
+                entries.add(gson.fromJson(element, JournalEntry.class));
+            }
+        } else {
+            entries.add(gson.fromJson(json, JournalEntry.class));
+        }
+        for (JournalEntry entry : entries) {
+            if (entry == null || entry.getStartTime() == null || entry.getEndTime() == null) {
+                throw new IllegalArgumentException("Every entry needs a startTime and an endTime");
+            }
+            if (!entry.getEndTime().isAfter(entry.getStartTime())) {
+                throw new IllegalArgumentException("Every entry must end after it starts");
+            }
+            if (entry.getActivityType() == null || entry.getActivityType().trim().isEmpty()) {
+                throw new IllegalArgumentException("Every entry needs an activityType");
+            }
+        }
+        return entries;
+    }
+
+    private JsonArray collisionsJson(List<JournalEntry> entries, Map<JournalEntry, List<JournalEntry>> collisions) {
+        JsonArray result = new JsonArray();
+        for (int i = 0; i < entries.size(); i++) {
+            List<JournalEntry> conflicts = collisions.get(entries.get(i));
+            if (conflicts != null) {
+                JsonObject collision = new JsonObject();
+                collision.addProperty("index", i);
+                collision.add("conflicts", gson.toJsonTree(conflicts, JournalEntryAdapter.LIST_TYPE));
+                result.add(collision);
+            }
+        }
+        return result;
+    }
+
+    private JsonObject statsJson(AnalysisService.ConsumingProductiveStats stats) {
+        JsonObject json = new JsonObject();
+        json.addProperty("consumingHours", stats.getConsumingHours());
+        json.addProperty("productiveHours", stats.getProductiveHours());
+        json.addProperty("totalHours", stats.getTotalHours());
+        json.addProperty("consumingPercentage", stats.getConsumingPercentage());
+        json.addProperty("productivePercentage", stats.getProductivePercentage());
+        return json;
+    }
+
+    private JsonObject timelineJson(TimelineStats timeline) {
+        JsonObject json = new JsonObject();
+        json.addProperty("trackedMinutes", timeline.getTrackedMinutes());
+        json.addProperty("untrackedMinutes", timeline.getUntrackedMinutes());
+        json.addProperty("overlapMinutes", timeline.getOverlapMinutes());
+        json.addProperty("consumingMinutes", timeline.getConsumingMinutes());
+        json.addProperty("productiveMinutes", timeline.getProductiveMinutes());
+        JsonArray gaps = new JsonArray();
+        for (TimelineStats.Gap gap : timeline.getGaps()) {
+            JsonObject gapJson = new JsonObject();
+            gapJson.addProperty("start", LocalDateTimeAdapter.format(gap.getStart()));
+            gapJson.addProperty("end", LocalDateTimeAdapter.format(gap.getEnd()));
+            gaps.add(gapJson);
+        }
+        json.add("gaps", gaps);
+        return json;
+    }
+
+    /**
+     * Converts a category and its children, largest first, down to a maximum depth below it.
+     */
+    private JsonObject categoryJson(Category category, int depth, int top) {
+        JsonObject json = new JsonObject();
+        json.addProperty("title", category.getActivityTitle());
+        json.addProperty("hours", category.getTotalTimeHours());
+        json.addProperty("percentOfParent", category.getPercentOfParent());
+        if (depth > 0 && category.getNumberOfChildren() > 0) {
+            JsonArray children = new JsonArray();
+            for (Category child : category.getTopChildren(top)) {
+                children.add(categoryJson(child, depth - 1, top));
+            }
+            json.add("children", children);
+        }
+        return json;
+    }
+
+    /**
+     * Gets an ETag that changes whenever this server's journal writes data.
+     */
+    private String versionTag() {
+        return versionTag(journalManager.getDataVersion());
+    }
+
+    private String versionTag(long version) {
+        return "\"" + instanceTag + "-" + version + "\"";
+    }
+
+    /**
+     * Gets an ETag that changes whenever the data files of the given days change.
+     */
+    private String dayTag(LocalDate... dates) {
+        long hash = 17;
+        for (LocalDate date : dates) {
+            hash = 31 * hash + journalManager.getDayStamp(date);
+        }
+        return "\"d" + Long.toString(hash, 36) + "\"";
+    }
+
+    /**
+     * Answers with 304 if the client already has the current version.
+     */
+    private boolean notModified(HttpExchange exchange, String etag) throws IOException {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.sendResponseHeaders(304, -1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sendJson(HttpExchange exchange, int status, JsonElement body, String etag) throws IOException {
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) {
+        JsonObject body = new JsonObject();
+        body.addProperty("error", message != null ? message : "Bad request");
+        try {
+            sendJson(exchange, status, body, null);
+        } catch (IOException e) {
+            // Headers were already sent or the client went away; nothing more to report
+        }
+    }
+
+    private void sendMethodNotAllowed(HttpExchange exchange, String allowed) {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        sendError(exchange, 405, "Method not allowed");
+    }
+
+    private Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals >= 0 ? pair.substring(0, equals) : pair;
+            String value = equals >= 0 ? pair.substring(equals + 1) : "";
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private LocalDate parseDate(String value) {
+        return value == null || value.isEmpty() ? null : LocalDate.parse(value, DATE_FORMATTER);
+    }
+
+    private LocalDate requireDate(Map<String, String> params, String name) {
+        LocalDate date = parseDate(params.get(name));
+        if (date == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return date;
+    }
+
+    /**
+     * Starts a server on the given port (default 8080) and runs until the process is stopped.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length >= 1 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        JournalManager journalManager = new JournalManager();
+        JournalServer server = new JournalServer(journalManager,
+                new AnalysisService(journalManager, new CategoryManager()));
+        server.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        System.out.println("Journal server listening on port " + server.getPort());
+    }
+}
@@ -0,0 +1,187 @@
+package com.journal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Owns several journals (shards), e.g. one per team member, each with its own data root,
+ * so one process can serve and aggregate them together.
+ * The day caches of all shards share one memory budget: half of it is split evenly, the other half
+ * by how many days each shard read since the last rebalance, so busy journals get more cache.
+ */
+public class JournalShards {
+    private static final long DEFAULT_CACHE_BYTES = 128L * 1024 * 1024;
+    private static final long DEFAULT_COLD_CACHE_BYTES = 256L * 1024 * 1024;
+
+    private final Map<String, JournalManager> shards = new LinkedHashMap<>();
+    private final Map<String, Long> requestsAtRebalance = new HashMap<>();
+    private final long cacheBytes;
+    private final long coldCacheBytes;
+
+    /**
+     * Creates an empty set of shards with the budget from the {@code journal.shards.cacheBytes}
+     * and {@code journal.shards.coldBytes} system properties.
+     */
+    public JournalShards() {
+        this(Long.getLong("journal.shards.cacheBytes", DEFAULT_CACHE_BYTES),
+                Long.getLong("journal.shards.coldBytes", ColdDayStore.capToDirectMemory(DEFAULT_COLD_CACHE_BYTES)));
+    }
+
+    /**
+     * Creates an empty set of shards.
+     * @param cacheBytes Heap budget shared by the day caches of all shards
+     * @param coldCacheBytes Off-heap budget shared by the cold tiers of all shards
+     */
+    public JournalShards(long cacheBytes, long coldCacheBytes) {
+        this.cacheBytes = cacheBytes;
+        this.coldCacheBytes = coldCacheBytes;
+    }
+
+    /**
+     * Opens every subdirectory of a directory as a shard named after the subdirectory.
+     */
+    public static JournalShards open(File root) {
+        JournalShards journalShards = new JournalShards();
+        File[] dirs = root.listFiles(File::isDirectory);
+        if (dirs != null) {
+            Arrays.sort(dirs);
+            for (File dir : dirs) {
+                journalShards.addShard(dir.getName(), dir);
+            }
+        }
+        return journalShards;
+    }
+
+    /**
+     * Adds the journal stored in a directory as a shard and rebalances the cache budget.
+     * @throws IllegalArgumentException if a shard with that name exists
+     */
+    public synchronized JournalManager addShard(String name, File dataDir) {
+        if (shards.containsKey(name)) {
+            throw new IllegalArgumentException("Shard already exists: " + name);
+        }
+        JournalManager journalManager = new JournalManager(dataDir);
+        shards.put(name, journalManager);
+        rebalanceCaches();
+        return journalManager;
+    }
+
+    /**
+     * Removes a shard, checkpointing its state, and gives its cache budget to the others.
+     */
+    public synchronized void removeShard(String name) {
+        JournalManager journalManager = shards.remove(name);
+        if (journalManager != null) {
+            requestsAtRebalance.remove(name);
+            journalManager.checkpoint();
+            rebalanceCaches();
+        }
+    }
+
+    /**
+     * Gets a shard by name, or null if there is none.
+     */
+    public synchronized JournalManager getShard(String name) {
+        return shards.get(name);
+    }
+
+    public synchronized List<String> getShardNames() {
+        return new ArrayList<>(shards.keySet());
+    }
+
+    public synchronized int size() {
+        return shards.size();
+    }
+
+    /**
+     * Runs a task on every shard in parallel and returns the results by shard name, in shard order.
+     * Afterwards the cache budget is rebalanced by what the shards read.
+     */
+    public <T> Map<String, T> mapShards(Function<JournalManager, T> task) {
+        Map<String, JournalManager> current;
+        synchronized (this) {
+            current = new LinkedHashMap<>(shards);
+        }
+        Map<String, T> results = new LinkedHashMap<>();
+        if (current.isEmpty()) {
+            return results;
+        }
+
+        int threads = Math.min(current.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = TaskExecutors.newBlockingTaskExecutor(threads);
+        try {
+            Map<String, Future<T>> futures = new LinkedHashMap<>();
+            for (Map.Entry<String, JournalManager> shard : current.entrySet()) {
+                futures.put(shard.getKey(), executor.submit(() -> task.apply(shard.getValue())));
+            }
+            for (Map.Entry<String, Future<T>> future : futures.entrySet()) {
+                results.put(future.getKey(), await(future.getKey(), future.getValue()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        rebalanceCaches();
+        return results;
+    }
+
+    private static <T> T await(String name, Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while reading shard " + name, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Error reading shard " + name, cause);
+        }
+    }
+
+    /**
+     * Splits the global cache budget between the shards: half evenly, half in proportion
+     * to the days each shard looked up in its cache since the last rebalance.
+     */
+    public synchronized void rebalanceCaches() {
+        if (shards.isEmpty()) {
+            return;
+        }
+        Map<String, Long> recentRequests = new HashMap<>();
+        long totalRequests = 0;
+        for (Map.Entry<String, JournalManager> shard : shards.entrySet()) {
+            DayCache.Stats stats = shard.getValue().getDayCacheStats();
+            long requests = stats.getHits() + stats.getMisses();
+            long recent = requests - requestsAtRebalance.getOrDefault(shard.getKey(), 0L);
+            requestsAtRebalance.put(shard.getKey(), requests);
+            recentRequests.put(shard.getKey(), recent);
+            totalRequests += recent;
+        }
+
+        for (Map.Entry<String, JournalManager> shard : shards.entrySet()) {
+            double share = totalRequests > 0
+                    ? 0.5 / shards.size() + 0.5 * recentRequests.get(shard.getKey()) / totalRequests
+                    : 1.0 / shards.size();
+            shard.getValue().setCacheBudget((long) (cacheBytes * share), (long) (coldCacheBytes * share));
+        }
+    }
+
+    /**
+     * Writes the state checkpoint of every shard.
+     */
+    public synchronized void checkpoint() {
+        for (JournalManager journalManager : shards.values()) {
+            journalManager.checkpoint();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.journal;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A point-in-time view of the journal, for long reads such as lifetime scans and exports.
+ * Reads take no locks and see every day as it was when the snapshot was opened,
+ * even while saves continue: a writer replacing a day hands the previous version of the day
+ * to each open snapshot first, and the snapshot prefers those preserved days.
+ * Snapshots must be closed so writers stop preserving days for them.
+ */
+public class JournalSnapshot implements AutoCloseable {
+    private final JournalManager journalManager;
+    private final long version;
+    private final Map<LocalDate, List<JournalEntry>> preservedDays = new ConcurrentHashMap<>();
+
+    JournalSnapshot(JournalManager journalManager, long version) {
+        this.journalManager = journalManager;
+        this.version = version;
+    }
+
+    /**
+     * Gets the data version this snapshot shows; changes with a higher version are not visible.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Loads the entries of a date as of this snapshot. The entries should not be modified.
+     */
+    public List<JournalEntry> loadEntriesForDate(LocalDate date) {
+        return loadEntriesForScan(date, false);
+    }
+
+    List<JournalEntry> loadEntriesForScan(LocalDate date, boolean lazy) {
+        List<JournalEntry> preserved = preservedDays.get(date);
+        if (preserved != null) {
+            return new ArrayList<>(preserved);
+        }
+        List<JournalEntry> entries = journalManager.loadEntriesForScan(date, lazy);
+        // A writer preserves the old day before replacing it, so if the day was replaced
+        // while it was read, the version this snapshot needs is preserved by now
+        preserved = preservedDays.get(date);
+        return preserved != null ? new ArrayList<>(preserved) : entries;
+    }
+
+    /**
+     * Keeps the version of a day this snapshot shows, unless it already has one.
+     */
+    void preserve(LocalDate date, List<JournalEntry> entries) {
+        preservedDays.putIfAbsent(date, entries);
+    }
+
+    /**
+     * Opens a cursor over the entries between two dates (inclusive, null for open ends) as of this snapshot.
+     */
+    public EntryCursor openCursor(LocalDate from, LocalDate to, boolean ascending) {
+        return new EntryCursor(journalManager, this, journalManager.getDatesInRange(from, to), null, ascending, false);
+    }
+
+    /**
+     * Streams entries between two dates (inclusive, null for open ends) as lazily decoded,
+     * read-only views, like {@link JournalManager#scanEntries}, as of this snapshot.
+     */
+    Stream<JournalEntry> scanEntries(LocalDate from, LocalDate to) {
+        EntryCursor cursor = new EntryCursor(journalManager, this, journalManager.getDatesInRange(from, to),
+                null, true, true);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Gets the number of days preserved for this snapshot because they changed after it was opened.
+     */
+    public int getPreservedDayCount() {
+        return preservedDays.size();
+    }
+
+    @Override
+    public void close() {
+        journalManager.closeSnapshot(this);
+        preservedDays.clear();
+    }
+}
@@ -0,0 +1,391 @@
+package com.journal;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A read-mostly view of a journal entry backed by its raw JSON text.
+ * Fields are located with a single cheap scan and only decoded when first accessed.
+ * Duration, flags and the main category are computed straight from the raw characters,
+ * so stats and category scans never create timestamp or note objects.
+ */
+public class LazyJournalEntry extends JournalEntry {
+    private static final String[] FIELD_NAMES = {"startTime", "endTime", "activityType",
+            "isConsuming", "isProductive", "note", "id"};
+    private static final int START_TIME = 0;
+    private static final int END_TIME = 1;
+    private static final int ACTIVITY_TYPE = 2;
+    private static final int IS_CONSUMING = 3;
+    private static final int IS_PRODUCTIVE = 4;
+    private static final int NOTE = 5;
+    private static final int ID = 6;
+
+    private final String source;
+    private final int[] valueStart = new int[FIELD_NAMES.length];
+    private final int[] valueEnd = new int[FIELD_NAMES.length];
+    private int decodedFields;
+
+    private LazyJournalEntry(String source, int objectStart, int objectEnd) {
+        this.source = source;
+        java.util.Arrays.fill(valueStart, -1);
+        indexFields(objectStart, objectEnd);
+    }
+
+    /**
+     * Splits a JSON array of entries into lazy views sharing the same source text.
+     * @throws IllegalArgumentException if the text is not an array of JSON objects
+     */
+    public static List<JournalEntry> parseDay(String json) {
+        List<JournalEntry> entries = new ArrayList<>();
+        int i = skipWhitespace(json, 0);
+        if (i >= json.length()) {
+            return entries;
+        }
+        if (json.charAt(i) != '[') {
+            throw new IllegalArgumentException("Expected a JSON array");
+        }
+        i = skipWhitespace(json, i + 1);
+
+        while (i < json.length() && json.charAt(i) != ']') {
+            if (json.charAt(i) != '{') {
+                throw new IllegalArgumentException("Expected a JSON object at " + i);
+            }
+            int end = skipValue(json, i);
+            entries.add(new LazyJournalEntry(json, i, end));
+            i = skipWhitespace(json, end);
+            if (i < json.length() && json.charAt(i) == ',') {
+                i = skipWhitespace(json, i + 1);
+            }
+        }
+        if (i >= json.length()) {
+            throw new IllegalArgumentException("Unterminated JSON array");
+        }
+        return entries;
+    }
+
+    /**
+     * Records where the value of each known field starts and ends. Unknown fields are skipped.
+     */
+    private void indexFields(int objectStart, int objectEnd) {
+        int i = skipWhitespace(source, objectStart + 1);
+        while (i < objectEnd && source.charAt(i) == '"') {
+            int keyEnd = skipValue(source, i);
+            int field = fieldIndex(i + 1, keyEnd - 1);
+            i = skipWhitespace(source, keyEnd);
+            if (i >= objectEnd || source.charAt(i) != ':') {
+                throw new IllegalArgumentException("Expected ':' at " + i);
+            }
+            i = skipWhitespace(source, i + 1);
+            int end = skipValue(source, i);
+            if ((field == IS_CONSUMING || field == IS_PRODUCTIVE) && !isBooleanLiteral(i, end)) {
+                // Quoted or odd flags are left to JournalEntryAdapter, so both paths decode them alike
+                throw new IllegalArgumentException("Expected a boolean literal at " + i);
+            }
+            if (field == ID && !isIntegerLiteral(i, end)) {
+                // Likewise for quoted or fractional ids, which Long.parseLong would reject
+                throw new IllegalArgumentException("Expected an integer id at " + i);
+            }
+            if (field >= 0) {
+                valueStart[field] = i;
+                valueEnd[field] = end;
+            }
+            i = skipWhitespace(source, end);
+            if (i < objectEnd && source.charAt(i) == ',') {
+                i = skipWhitespace(source, i + 1);
+            }
+        }
+    }
+
+    private boolean isBooleanLiteral(int start, int end) {
+        int length = end - start;
+        return (length == 4 && (source.startsWith("true", start) || source.startsWith("null", start)))
+                || (length == 5 && source.startsWith("false", start));
+    }
+
+    /**
+     * Tells whether a value is {@code null} or an integer {@link Long#parseLong} accepts.
+     */
+    private boolean isIntegerLiteral(int start, int end) {
+        if (end - start == 4 && source.startsWith("null", start)) {
+            return true;
+        }
+        int digits = start < end && source.charAt(start) == '-' ? start + 1 : start;
+        if (digits == end || end - digits > 18) {
+            return false;
+        }
+        for (int i = digits; i < end; i++) {
+            if (source.charAt(i) < '0' || source.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int fieldIndex(int start, int end) {
+        for (int f = 0; f < FIELD_NAMES.length; f++) {
+            if (FIELD_NAMES[f].length() == end - start && source.startsWith(FIELD_NAMES[f], start)) {
+                return f;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(String text, int i) {
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the index just after the JSON value starting at {@code i}.
+     */
+    private static int skipValue(String text, int i) {
+        char c = text.charAt(i);
+        if (c == '"') {
+            i++;
+            while (i < text.length()) {
+                char s = text.charAt(i);
+                if (s == '\\') {
+                    i += 2;
+                } else if (s == '"') {
+                    return i + 1;
+                } else {
+                    i++;
+                }
+            }
+            throw new IllegalArgumentException("Unterminated string");
+        }
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            while (i < text.length()) {
+                char s = text.charAt(i);
+                if (s == '"') {
+                    i = skipValue(text, i);
+                    continue;
+                }
+                if (s == '{' || s == '[') {
+                    depth++;
+                } else if (s == '}' || s == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return i + 1;
+                    }
+                }
+                i++;
+            }
+            throw new IllegalArgumentException("Unterminated object");
+        }
+        while (i < text.length() && ",}] \t\r\n".indexOf(text.charAt(i)) < 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean isDecoded(int field) {
+        return (decodedFields & (1 << field)) != 0;
+    }
+
+    private void markDecoded(int field) {
+        decodedFields |= 1 << field;
+    }
+
+    private boolean isNull(int field) {
+        return valueStart[field] < 0 || source.startsWith("null", valueStart[field]);
+    }
+
+    private String decodeString(int field) {
+        if (isNull(field)) {
+            return null;
+        }
+        int start = valueStart[field] + 1;
+        int end = valueEnd[field] - 1;
+        int escape = source.indexOf('\\', start);
+        if (escape < 0 || escape >= end) {
+            return source.substring(start, end);
+        }
+
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char e = source.charAt(++i);
+            switch (e) {
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    sb.append((char) Integer.parseInt(source.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default: sb.append(e);
+            }
+        }
+        return sb.toString();
+    }
+
+    private LocalDateTime decodeTimestamp(int field) {
+        String text = decodeString(field);
+        return text != null ? LocalDateTimeAdapter.parse(text) : null;
+    }
+
+    private boolean decodeBoolean(int field) {
+        return valueStart[field] >= 0 && source.startsWith("true", valueStart[field]);
+    }
+
+    @Override
+    public long getId() {
+        if (!isDecoded(ID)) {
+            super.setId(isNull(ID) ? 0L : Long.parseLong(source.substring(valueStart[ID], valueEnd[ID])));
+            markDecoded(ID);
+        }
+        return super.getId();
+    }
+
+    @Override
+    public void setId(long id) {
+        markDecoded(ID);
+        super.setId(id);
+    }
+
+    @Override
+    public LocalDateTime getStartTime() {
+        if (!isDecoded(START_TIME)) {
+            super.setStartTime(decodeTimestamp(START_TIME));
+            markDecoded(START_TIME);
+        }
+        return super.getStartTime();
+    }
+
+    @Override
+    public void setStartTime(LocalDateTime startTime) {
+        markDecoded(START_TIME);
+        super.setStartTime(startTime);
+    }
+
+    @Override
+    public LocalDateTime getEndTime() {
+        if (!isDecoded(END_TIME)) {
+            super.setEndTime(decodeTimestamp(END_TIME));
+            markDecoded(END_TIME);
+        }
+        return super.getEndTime();
+    }
+
+    @Override
+    public void setEndTime(LocalDateTime endTime) {
+        markDecoded(END_TIME);
+        super.setEndTime(endTime);
+    }
+
+    @Override
+    public String getActivityType() {
+        if (!isDecoded(ACTIVITY_TYPE)) {
+            super.setActivityType(decodeString(ACTIVITY_TYPE));
+            markDecoded(ACTIVITY_TYPE);
+        }
+        return super.getActivityType();
+    }
+
+    @Override
+    public void setActivityType(String activityType) {
+        markDecoded(ACTIVITY_TYPE);
+        super.setActivityType(activityType);
+    }
+
+    @Override
+    public boolean isConsuming() {
+        if (!isDecoded(IS_CONSUMING)) {
+            super.setConsuming(decodeBoolean(IS_CONSUMING));
+            markDecoded(IS_CONSUMING);
+        }
+        return super.isConsuming();
+    }
+
+    @Override
+    public void setConsuming(boolean consuming) {
+        markDecoded(IS_CONSUMING);
+        super.setConsuming(consuming);
+    }
+
+    @Override
+    public boolean isProductive() {
+        if (!isDecoded(IS_PRODUCTIVE)) {
+            super.setProductive(decodeBoolean(IS_PRODUCTIVE));
+            markDecoded(IS_PRODUCTIVE);
+        }
+        return super.isProductive();
+    }
+
+    @Override
+    public void setProductive(boolean productive) {
+        markDecoded(IS_PRODUCTIVE);
+        super.setProductive(productive);
+    }
+
+    @Override
+    public String getNote() {
+        if (!isDecoded(NOTE)) {
+            super.setNote(decodeString(NOTE));
+            markDecoded(NOTE);
+        }
+        return super.getNote();
+    }
+
+    @Override
+    public void setNote(String note) {
+        markDecoded(NOTE);
+        super.setNote(note);
+    }
+
+    /**
+     * Computes the duration from the raw timestamps when neither has been decoded or changed.
+     */
+    @Override
+    public long getDurationMinutes() {
+        if (!isDecoded(START_TIME) && !isDecoded(END_TIME) && !isNull(START_TIME) && !isNull(END_TIME)) {
+            long start = LocalDateTimeAdapter.epochSeconds(source, valueStart[START_TIME] + 1, valueEnd[START_TIME] - 1);
+            long end = LocalDateTimeAdapter.epochSeconds(source, valueStart[END_TIME] + 1, valueEnd[END_TIME] - 1);
+            if (start != Long.MIN_VALUE && end != Long.MIN_VALUE) {
+                return (end - start) / 60;
+            }
+        }
+        return super.getDurationMinutes();
+    }
+
+    /**
+     * Reads the first word of the activity type straight from the raw text.
+     */
+    @Override
+    public String getMainCategory() {
+        if (isDecoded(ACTIVITY_TYPE) || isNull(ACTIVITY_TYPE)) {
+            return super.getMainCategory();
+        }
+        int end = valueEnd[ACTIVITY_TYPE] - 1;
+        int start = valueStart[ACTIVITY_TYPE] + 1;
+        while (start < end && isTokenSeparator(source.charAt(start))) {
+            start++;
+        }
+        int tokenEnd = start;
+        while (tokenEnd < end && !isTokenSeparator(source.charAt(tokenEnd))) {
+            if (source.charAt(tokenEnd) == '\\') {
+                return super.getMainCategory();
+            }
+            tokenEnd++;
+        }
+        return tokenEnd > start ? source.substring(start, tokenEnd).toLowerCase() : null;
+    }
+
+    /**
+     * Matches the characters {@link CategoryManager#tokenize} splits on.
+     */
+    private static boolean isTokenSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
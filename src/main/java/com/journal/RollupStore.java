@@ -0,0 +1,287 @@
+package com.journal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Precomputed per-day, per-ISO-week and per-month rollups of consuming/productive minutes
+ * and main category minutes. Daily rows are checkpointed in a compact binary form and updated
+ * incrementally whenever a day is written; weekly and monthly rows are derived from them.
+ */
+public class RollupStore extends DerivedIndex {
+    /**
+     * Aggregated minutes for one bucket (a day, week, month or the whole history).
+     */
+    public static class Rollup {
+        private int entryCount;
+        private long consumingMinutes;
+        private long productiveMinutes;
+        private final Map<String, Long> categoryMinutes = new HashMap<>();
+        private final Map<String, Integer> categoryCounts = new HashMap<>();
+
+        public int getEntryCount() { return entryCount; }
+        public long getConsumingMinutes() { return consumingMinutes; }
+        public long getProductiveMinutes() { return productiveMinutes; }
+        public double getConsumingHours() { return consumingMinutes / 60.0; }
+        public double getProductiveHours() { return productiveMinutes / 60.0; }
+
+        /**
+         * Minutes per main category (first token of the activity type).
+         */
+        public Map<String, Long> getCategoryMinutes() {
+            return Collections.unmodifiableMap(categoryMinutes);
+        }
+
+        /**
+         * Number of entries in a main category.
+         */
+        public int getCategoryCount(String category) {
+            return categoryCounts.getOrDefault(category, 0);
+        }
+
+        boolean isEmpty() {
+            return entryCount == 0;
+        }
+
+        /**
+         * Builds the rollup for one day of entries.
+         */
+        static Rollup of(List<JournalEntry> entries) {
+            Rollup rollup = new Rollup();
+            for (JournalEntry entry : entries) {
+                long minutes = entry.getDurationMinutes();
+                rollup.entryCount++;
+                if (entry.isConsuming()) {
+                    rollup.consumingMinutes += minutes;
+                }
+                if (entry.isProductive()) {
+                    rollup.productiveMinutes += minutes;
+                }
+                String category = entry.getMainCategory();
+                if (category != null) {
+                    rollup.categoryMinutes.merge(category, minutes, Long::sum);
+                    rollup.categoryCounts.merge(category, 1, Integer::sum);
+                }
+            }
+            return rollup;
+        }
+
+        /**
+         * Adds (sign 1) or subtracts (sign -1) another rollup from this one.
+         */
+        void add(Rollup other, int sign) {
+            entryCount += sign * other.entryCount;
+            consumingMinutes += sign * other.consumingMinutes;
+            productiveMinutes += sign * other.productiveMinutes;
+            for (Map.Entry<String, Long> category : other.categoryMinutes.entrySet()) {
+                long minutes = categoryMinutes.getOrDefault(category.getKey(), 0L) + sign * category.getValue();
+                int count = categoryCounts.getOrDefault(category.getKey(), 0) + sign * other.getCategoryCount(category.getKey());
+                if (count <= 0) {
+                    categoryMinutes.remove(category.getKey());
+                    categoryCounts.remove(category.getKey());
+                } else {
+                    categoryMinutes.put(category.getKey(), minutes);
+                    categoryCounts.put(category.getKey(), count);
+                }
+            }
+        }
+
+        Rollup copy() {
+            Rollup copy = new Rollup();
+            copy.add(this, 1);
+            return copy;
+        }
+    }
+
+    /**
+     * Notified after the rollup of a day changed.
+     */
+    public interface Listener {
+        void onDayUpdated(LocalDate date, Rollup newRow);
+    }
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final TreeMap<LocalDate, Rollup> daily = new TreeMap<>();
+    private final TreeMap<LocalDate, Rollup> weekly = new TreeMap<>();
+    private final TreeMap<LocalDate, Rollup> monthly = new TreeMap<>();
+    private final Map<LocalDate, Long> dayStamps = new HashMap<>();
+    private Rollup total = new Rollup();
+
+    @Override
+    String getName() {
+        return "rollups";
+    }
+
+    @Override
+    synchronized Map<LocalDate, Long> load(DataInputStream in) {
+        clear();
+        if (in != null) {
+            try {
+                read(in);
+            } catch (IOException e) {
+                System.err.println("Error loading rollups, rebuilding: " + e.getMessage());
+                clear();
+            }
+        }
+        return new HashMap<>(dayStamps);
+    }
+
+    /**
+     * Replaces the rollup of a day after it was written, adjusting its week, month and the total.
+     */
+    @Override
+    synchronized void updateDay(LocalDate date, List<JournalEntry> entries, long stamp) {
+        Rollup newRow = Rollup.of(entries);
+        Rollup oldRow = newRow.isEmpty() ? daily.remove(date) : daily.put(date, newRow);
+        if (newRow.isEmpty()) {
+            dayStamps.remove(date);
+        } else {
+            dayStamps.put(date, stamp);
+        }
+
+        if (oldRow != null) {
+            applyToBuckets(date, oldRow, -1);
+        }
+        if (!newRow.isEmpty()) {
+            applyToBuckets(date, newRow, 1);
+        }
+        for (Listener listener : listeners) {
+            listener.onDayUpdated(date, newRow);
+        }
+    }
+
+    /**
+     * Registers a listener for day updates. Listeners run while the store is locked,
+     * so registering while synchronized on the store does not miss any update.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    private void applyToBuckets(LocalDate date, Rollup row, int sign) {
+        applyToBucket(weekly, weekStart(date), row, sign);
+        applyToBucket(monthly, date.withDayOfMonth(1), row, sign);
+        total.add(row, sign);
+    }
+
+    private void applyToBucket(TreeMap<LocalDate, Rollup> buckets, LocalDate key, Rollup row, int sign) {
+        Rollup bucket = buckets.computeIfAbsent(key, k -> new Rollup());
+        bucket.add(row, sign);
+        if (bucket.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+
+    /**
+     * Gets daily rollups between two dates (inclusive), keyed by date.
+     */
+    public synchronized NavigableMap<LocalDate, Rollup> getDaily(LocalDate from, LocalDate to) {
+        return copyRange(daily, from, to);
+    }
+
+    /**
+     * Gets ISO week rollups covering the two dates, keyed by the Monday of each week.
+     */
+    public synchronized NavigableMap<LocalDate, Rollup> getWeekly(LocalDate from, LocalDate to) {
+        return copyRange(weekly, weekStart(from), to);
+    }
+
+    /**
+     * Gets monthly rollups covering the two dates, keyed by the first day of each month.
+     */
+    public synchronized NavigableMap<LocalDate, Rollup> getMonthly(LocalDate from, LocalDate to) {
+        return copyRange(monthly, from.withDayOfMonth(1), to);
+    }
+
+    /**
+     * Gets the rollup of a single day, or an empty rollup if there are no entries.
+     */
+    public synchronized Rollup getDay(LocalDate date) {
+        Rollup row = daily.get(date);
+        return row != null ? row.copy() : new Rollup();
+    }
+
+    /**
+     * Gets the rollup over the whole history.
+     */
+    public synchronized Rollup getTotal() {
+        return total.copy();
+    }
+
+    private NavigableMap<LocalDate, Rollup> copyRange(TreeMap<LocalDate, Rollup> rows, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Rollup> result = new TreeMap<>();
+        for (Map.Entry<LocalDate, Rollup> row : rows.subMap(from, true, to, true).entrySet()) {
+            result.put(row.getKey(), row.getValue().copy());
+        }
+        return result;
+    }
+
+    private static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private void clear() {
+        daily.clear();
+        weekly.clear();
+        monthly.clear();
+        dayStamps.clear();
+        total = new Rollup();
+    }
+
+    /**
+     * Writes the daily rows for the state checkpoint; weekly and monthly rows are derived again on load.
+     */
+    @Override
+    synchronized void write(DataOutputStream out) throws IOException {
+        out.writeInt(daily.size());
+        for (Map.Entry<LocalDate, Rollup> row : daily.entrySet()) {
+            Rollup rollup = row.getValue();
+            out.writeLong(row.getKey().toEpochDay());
+            out.writeLong(dayStamps.getOrDefault(row.getKey(), 0L));
+            out.writeInt(rollup.entryCount);
+            out.writeLong(rollup.consumingMinutes);
+            out.writeLong(rollup.productiveMinutes);
+            out.writeInt(rollup.categoryMinutes.size());
+            for (Map.Entry<String, Long> category : rollup.categoryMinutes.entrySet()) {
+                out.writeUTF(category.getKey());
+                out.writeLong(category.getValue());
+                out.writeInt(rollup.getCategoryCount(category.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Reads the checkpointed daily rows.
+     */
+    private void read(DataInputStream in) throws IOException {
+        int rows = in.readInt();
+        for (int i = 0; i < rows; i++) {
+            LocalDate date = LocalDate.ofEpochDay(in.readLong());
+            long stamp = in.readLong();
+            Rollup rollup = new Rollup();
+            rollup.entryCount = in.readInt();
+            rollup.consumingMinutes = in.readLong();
+            rollup.productiveMinutes = in.readLong();
+            int categories = in.readInt();
+            for (int c = 0; c < categories; c++) {
+                String category = in.readUTF();
+                rollup.categoryMinutes.put(category, in.readLong());
+                rollup.categoryCounts.put(category, in.readInt());
+            }
+            daily.put(date, rollup);
+            dayStamps.put(date, stamp);
+            applyToBuckets(date, rollup, 1);
+        }
+    }
+}
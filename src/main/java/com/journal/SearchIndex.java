@@ -0,0 +1,344 @@
+package com.journal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Inverted index over the activity types and notes of all entries.
+ * Supports term, prefix ({@code word*}) and phrase ({@code "two words"}) queries
+ * with date-range filtering. Text is split with {@link CategoryManager#tokenize},
+ * so search terms match the same words the category tree uses.
+ * Only the first 32768 entries of a day and the first 32768 words of a field are indexed.
+ */
+public class SearchIndex extends DerivedIndex {
+    private static final int NOTE_FIELD = 1 << 15;
+    private static final int MAX_POSITION = NOTE_FIELD - 1;
+    // Postings are packed into an int, so the entry index must leave the sign bit clear
+    private static final int MAX_ENTRY_INDEX = Short.MAX_VALUE;
+
+    /**
+     * Identifies a matching entry by its date and position within that day.
+     */
+    public static class SearchHit {
+        private final LocalDate date;
+        private final int entryIndex;
+
+        public SearchHit(LocalDate date, int entryIndex) {
+            this.date = date;
+            this.entryIndex = entryIndex;
+        }
+
+        public LocalDate getDate() { return date; }
+        public int getEntryIndex() { return entryIndex; }
+    }
+
+    // term -> epoch day -> sorted postings packed as (entryIndex << 16 | position)
+    private final TreeMap<String, TreeMap<Long, int[]>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> dayTerms = new HashMap<>();
+    private final Map<LocalDate, Long> dayStamps = new HashMap<>();
+    /**
+     * Normalizes a token for indexing and querying by stripping surrounding punctuation.
+     */
+    static String normalize(String token) {
+        int start = 0;
+        int end = token.length();
+        while (start < end && !Character.isLetterOrDigit(token.charAt(start))) {
+            start++;
+        }
+        while (end > start && !Character.isLetterOrDigit(token.charAt(end - 1))) {
+            end--;
+        }
+        return token.substring(start, end);
+    }
+
+    private static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String token : CategoryManager.tokenize(text)) {
+            String term = normalize(token);
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    @Override
+    String getName() {
+        return "search";
+    }
+
+    @Override
+    synchronized Map<LocalDate, Long> load(DataInputStream in) {
+        clear();
+        if (in != null) {
+            try {
+                read(in);
+            } catch (IOException e) {
+                System.err.println("Error loading search index, rebuilding: " + e.getMessage());
+                clear();
+            }
+        }
+        return new HashMap<>(dayStamps);
+    }
+
+    @Override
+    synchronized void updateDay(LocalDate date, List<JournalEntry> entries, long stamp) {
+        long epochDay = date.toEpochDay();
+        removeDay(epochDay);
+
+        Map<String, List<Integer>> dayPostings = new HashMap<>();
+        for (int i = 0; i < entries.size() && i <= MAX_ENTRY_INDEX; i++) {
+            JournalEntry entry = entries.get(i);
+            addField(dayPostings, i, 0, terms(entry.getActivityType()));
+            addField(dayPostings, i, NOTE_FIELD, terms(entry.getNote()));
+        }
+
+        for (Map.Entry<String, List<Integer>> term : dayPostings.entrySet()) {
+            int[] packed = term.getValue().stream().mapToInt(Integer::intValue).toArray();
+            postings.computeIfAbsent(term.getKey(), t -> new TreeMap<>()).put(epochDay, packed);
+        }
+        if (!dayPostings.isEmpty()) {
+            dayTerms.put(epochDay, new HashSet<>(dayPostings.keySet()));
+        }
+        // Days whose entries have no terms are still indexed, so they are not re-read on every start
+        if (entries.isEmpty()) {
+            dayStamps.remove(date);
+        } else {
+            dayStamps.put(date, stamp);
+        }
+    }
+
+    private void addField(Map<String, List<Integer>> dayPostings, int entryIndex, int field, List<String> terms) {
+        for (int position = 0; position < terms.size() && position <= MAX_POSITION; position++) {
+            dayPostings.computeIfAbsent(terms.get(position), t -> new ArrayList<>())
+                    .add(entryIndex << 16 | field | position);
+        }
+    }
+
+    private void removeDay(long epochDay) {
+        Set<String> terms = dayTerms.remove(epochDay);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            TreeMap<Long, int[]> days = postings.get(term);
+            if (days != null) {
+                days.remove(epochDay);
+                if (days.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds entries matching all clauses of a query between two dates (inclusive, null for open).
+     * Clauses are separated by spaces; {@code word*} matches a prefix and {@code "a b"} a phrase.
+     * Hits are returned in chronological order.
+     */
+    public synchronized List<SearchHit> search(String query, LocalDate from, LocalDate to) {
+        long fromDay = from != null ? from.toEpochDay() : Long.MIN_VALUE;
+        long toDay = to != null ? to.toEpochDay() : Long.MAX_VALUE;
+
+        TreeSet<Long> result = null;
+        for (String clause : parseClauses(query)) {
+            TreeSet<Long> matches;
+            if (clause.startsWith("\"")) {
+                matches = matchPhrase(terms(clause.substring(1)), fromDay, toDay);
+            } else if (clause.endsWith("*")) {
+                matches = matchPrefix(normalize(clause.toLowerCase()), fromDay, toDay);
+            } else {
+                matches = matchTerm(normalize(clause.toLowerCase()), fromDay, toDay);
+            }
+
+            if (result == null) {
+                result = matches;
+            } else {
+                result.retainAll(matches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>();
+        if (result != null) {
+            for (long key : result) {
+                hits.add(new SearchHit(LocalDate.ofEpochDay(key >> 16), (int) (key & 0xFFFF)));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Splits a query into clauses, keeping quoted phrases together (marked by a leading quote).
+     */
+    private List<String> parseClauses(String query) {
+        List<String> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int end = query.indexOf('"', i + 1);
+                if (end < 0) {
+                    end = query.length();
+                }
+                clauses.add("\"" + query.substring(i + 1, end));
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < query.length() && !Character.isWhitespace(query.charAt(end))) {
+                    end++;
+                }
+                clauses.add(query.substring(i, end));
+                i = end;
+            }
+        }
+        clauses.removeIf(clause -> clause.equals("\"") || normalize(clause).isEmpty());
+        return clauses;
+    }
+
+    private TreeSet<Long> matchTerm(String term, long fromDay, long toDay) {
+        TreeSet<Long> matches = new TreeSet<>();
+        collectEntries(postings.get(term), fromDay, toDay, matches);
+        return matches;
+    }
+
+    private TreeSet<Long> matchPrefix(String prefix, long fromDay, long toDay) {
+        TreeSet<Long> matches = new TreeSet<>();
+        if (prefix.isEmpty()) {
+            return matches;
+        }
+        for (TreeMap<Long, int[]> days : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            collectEntries(days, fromDay, toDay, matches);
+        }
+        return matches;
+    }
+
+    private TreeSet<Long> matchPhrase(List<String> phrase, long fromDay, long toDay) {
+        TreeSet<Long> matches = new TreeSet<>();
+        if (phrase.isEmpty()) {
+            return matches;
+        }
+        if (phrase.size() == 1) {
+            return matchTerm(phrase.get(0), fromDay, toDay);
+        }
+
+        List<TreeMap<Long, int[]>> termDays = new ArrayList<>();
+        for (String term : phrase) {
+            TreeMap<Long, int[]> days = postings.get(term);
+            if (days == null) {
+                return matches;
+            }
+            termDays.add(days);
+        }
+
+        for (Map.Entry<Long, int[]> day : range(termDays.get(0), fromDay, toDay).entrySet()) {
+            for (int posting : day.getValue()) {
+                if (phraseContinues(termDays, day.getKey(), posting)) {
+                    matches.add(day.getKey() << 16 | (posting >>> 16));
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Checks that each following phrase term occurs right after the previous one in the same field.
+     */
+    private boolean phraseContinues(List<TreeMap<Long, int[]>> termDays, long epochDay, int firstPosting) {
+        for (int k = 1; k < termDays.size(); k++) {
+            int[] dayPostings = termDays.get(k).get(epochDay);
+            if (dayPostings == null || (firstPosting & MAX_POSITION) + k > MAX_POSITION
+                    || Arrays.binarySearch(dayPostings, firstPosting + k) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void collectEntries(TreeMap<Long, int[]> days, long fromDay, long toDay, Set<Long> matches) {
+        if (days == null) {
+            return;
+        }
+        for (Map.Entry<Long, int[]> day : range(days, fromDay, toDay).entrySet()) {
+            for (int posting : day.getValue()) {
+                matches.add(day.getKey() << 16 | (posting >>> 16));
+            }
+        }
+    }
+
+    private NavigableMap<Long, int[]> range(TreeMap<Long, int[]> days, long fromDay, long toDay) {
+        return days.subMap(fromDay, true, toDay, true);
+    }
+
+    @Override
+    synchronized void write(DataOutputStream out) throws IOException {
+        out.writeInt(dayStamps.size());
+        for (Map.Entry<LocalDate, Long> day : dayStamps.entrySet()) {
+            out.writeLong(day.getKey().toEpochDay());
+            out.writeLong(day.getValue());
+        }
+        out.writeInt(postings.size());
+        for (Map.Entry<String, TreeMap<Long, int[]>> term : postings.entrySet()) {
+            out.writeUTF(term.getKey());
+            out.writeInt(term.getValue().size());
+            for (Map.Entry<Long, int[]> day : term.getValue().entrySet()) {
+                out.writeLong(day.getKey());
+                out.writeInt(day.getValue().length);
+                for (int posting : day.getValue()) {
+                    out.writeInt(posting);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the checkpointed index.
+     */
+    private void read(DataInputStream in) throws IOException {
+        int days = in.readInt();
+        for (int i = 0; i < days; i++) {
+            dayStamps.put(LocalDate.ofEpochDay(in.readLong()), in.readLong());
+        }
+        int terms = in.readInt();
+        for (int t = 0; t < terms; t++) {
+            String term = in.readUTF();
+            TreeMap<Long, int[]> termDays = new TreeMap<>();
+            int dayCount = in.readInt();
+            for (int d = 0; d < dayCount; d++) {
+                long epochDay = in.readLong();
+                int[] dayPostings = new int[in.readInt()];
+                for (int p = 0; p < dayPostings.length; p++) {
+                    dayPostings[p] = in.readInt();
+                }
+                termDays.put(epochDay, dayPostings);
+                dayTerms.computeIfAbsent(epochDay, k -> new HashSet<>()).add(term);
+            }
+            postings.put(term, termDays);
+        }
+    }
+
+    private void clear() {
+        postings.clear();
+        dayTerms.clear();
+        dayStamps.clear();
+    }
+}
@@ -0,0 +1,208 @@
+package com.journal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A compacted month of journal data in a single file.
+ * The file starts with a table of the days it holds and where each day's JSON array is stored,
+ * so a single day is read with one positional read instead of opening a file per day.
+ * The file stays open while the segment is in use.
+ */
+public class SegmentFile implements Closeable {
+    public static final String EXTENSION = ".seg";
+    private static final int MAGIC = 0x4A534547; // "JSEG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final int TABLE_ROW_BYTES = 21;
+    private static final byte FLAG_GZIP = 1;
+
+    private final File file;
+    private final long lastModified;
+    private final long[] epochDays;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final byte[] flags;
+    private FileChannel channel;
+
+    private SegmentFile(File file, long lastModified, long[] epochDays, long[] offsets, int[] lengths, byte[] flags) {
+        this.file = file;
+        this.lastModified = lastModified;
+        this.epochDays = epochDays;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.flags = flags;
+    }
+
+    /**
+     * Opens a segment and reads its day table.
+     * @throws IOException if the file cannot be read or is not a segment
+     */
+    static SegmentFile open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long lastModified = file.lastModified();
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a journal segment: " + file);
+            }
+            int count = header.getInt();
+            if (count < 0 || HEADER_BYTES + (long) count * TABLE_ROW_BYTES > channel.size()) {
+                throw new IOException("Corrupt journal segment: " + file);
+            }
+
+            ByteBuffer table = readFully(channel, HEADER_BYTES, count * TABLE_ROW_BYTES);
+            long[] epochDays = new long[count];
+            long[] offsets = new long[count];
+            int[] lengths = new int[count];
+            byte[] flags = new byte[count];
+            for (int i = 0; i < count; i++) {
+                epochDays[i] = table.getLong();
+                offsets[i] = table.getLong();
+                lengths[i] = table.getInt();
+                flags[i] = table.get();
+            }
+
+            SegmentFile segment = new SegmentFile(file, lastModified, epochDays, offsets, lengths, flags);
+            segment.channel = channel;
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes days to a new segment file. Callers write to a temporary file and move it into place,
+     * so a crash never leaves a half-written segment.
+     * @param days The JSON array text of each day, in UTF-8
+     * @param gzip If true, each day is stored gzip-compressed
+     */
+    static void write(File file, SortedMap<LocalDate, byte[]> days, boolean gzip) throws IOException {
+        List<byte[]> payloads = new ArrayList<>(days.size());
+        for (byte[] json : days.values()) {
+            payloads.add(gzip ? compress(json) : json);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(days.size());
+            long offset = HEADER_BYTES + (long) days.size() * TABLE_ROW_BYTES;
+            int i = 0;
+            for (LocalDate date : days.keySet()) {
+                byte[] payload = payloads.get(i++);
+                out.writeLong(date.toEpochDay());
+                out.writeLong(offset);
+                out.writeInt(payload.length);
+                out.writeByte(gzip ? FLAG_GZIP : 0);
+                offset += payload.length;
+            }
+            for (byte[] payload : payloads) {
+                out.write(payload);
+            }
+        }
+    }
+
+    /**
+     * Gets the days stored in this segment, in order.
+     */
+    List<LocalDate> getDates() {
+        List<LocalDate> dates = new ArrayList<>(epochDays.length);
+        for (long epochDay : epochDays) {
+            dates.add(LocalDate.ofEpochDay(epochDay));
+        }
+        return dates;
+    }
+
+    /**
+     * Gets a stamp that changes whenever the stored data of a day changes, or 0 if the day is not stored.
+     */
+    long getDayStamp(LocalDate date) {
+        int i = Arrays.binarySearch(epochDays, date.toEpochDay());
+        if (i < 0) {
+            return 0L;
+        }
+        return 31 * (31 * lastModified + offsets[i]) + lengths[i];
+    }
+
+    /**
+     * Tells whether the file on disk is still the one this segment was opened from.
+     */
+    boolean isCurrent() {
+        return file.lastModified() == lastModified;
+    }
+
+    /**
+     * Reads the JSON array text of a day, or returns null if the day is not stored.
+     */
+    String readDay(LocalDate date) throws IOException {
+        int i = Arrays.binarySearch(epochDays, date.toEpochDay());
+        if (i < 0) {
+            return null;
+        }
+
+        FileChannel channel;
+        synchronized (this) {
+            if (this.channel == null) {
+                throw new IOException("Segment is closed: " + file);
+            }
+            channel = this.channel;
+        }
+        ByteBuffer buffer = readFully(channel, offsets[i], lengths[i]);
+        byte[] payload = new byte[lengths[i]];
+        buffer.get(payload);
+        if ((flags[i] & FLAG_GZIP) != 0) {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+                payload = in.readAllBytes();
+            }
+        }
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+}
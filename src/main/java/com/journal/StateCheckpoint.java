@@ -0,0 +1,222 @@
+package com.journal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A single versioned file holding the state of all derived indexes, one section per index.
+ * The file is memory-mapped when opened, so a section is only paged in when its index is first used.
+ * Each section carries the data file stamps its days were built from; days whose files changed
+ * since the checkpoint was written are re-indexed when the index is opened.
+ * Sections still unread are copied to the heap before the checkpoint is first rewritten, so the
+ * mapping can be released; some platforms (e.g. Windows) cannot replace a file while it is mapped.
+ * <p>
+ * File layout: magic, version, section count, then per section its name and length, then the payloads.
+ */
+class StateCheckpoint {
+    private static final int MAGIC = 0x4A434B50; // "JCKP"
+    private static final int VERSION = 1;
+
+    private final File file;
+    // Sections of indexes not opened yet, kept as they are when the checkpoint is rewritten;
+    // mapped until the first rewrite, then heap copies
+    private final Map<String, ByteBuffer> sections = new LinkedHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile long lastWriteMillis;
+
+    StateCheckpoint(File file) {
+        this.file = file;
+        if (!map()) {
+            sections.clear();
+        }
+    }
+
+    /**
+     * Maps the file and locates its sections. Returns false if the file is missing or unreadable.
+     */
+    private boolean map() {
+        if (!file.exists()) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            DataInputStream header = new DataInputStream(new ByteBufferInputStream(buffer));
+            if (header.readInt() != MAGIC || header.readInt() != VERSION) {
+                return false;
+            }
+            int count = header.readInt();
+            if (count < 0) {
+                return false;
+            }
+            String[] names = new String[count];
+            int[] lengths = new int[count];
+            for (int i = 0; i < count; i++) {
+                names[i] = header.readUTF();
+                lengths[i] = header.readInt();
+            }
+            int offset = buffer.position();
+            for (int i = 0; i < count; i++) {
+                if (lengths[i] < 0 || offset + lengths[i] > buffer.limit()) {
+                    System.err.println("Error loading checkpoint, rebuilding: truncated section " + names[i]);
+                    return false;
+                }
+                ByteBuffer section = buffer.duplicate();
+                section.position(offset).limit(offset + lengths[i]);
+                sections.put(names[i], section.slice());
+                offset += lengths[i];
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error loading checkpoint, rebuilding: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Takes the section of an index for loading, or returns null if the checkpoint has none.
+     * Once taken, the section is written from the live index.
+     */
+    synchronized DataInputStream takeSection(String name) {
+        ByteBuffer section = sections.remove(name);
+        return section != null ? new DataInputStream(new ByteBufferInputStream(section)) : null;
+    }
+
+    /**
+     * Notes that an index changed since the checkpoint was written.
+     */
+    void markDirty() {
+        dirty.set(true);
+    }
+
+    /**
+     * Writes the checkpoint if an index changed and the last write is at least the given time ago.
+     */
+    void writeIfDue(List<DerivedIndex> indexes, long intervalMillis) {
+        if (dirty.get() && System.currentTimeMillis() - lastWriteMillis >= intervalMillis) {
+            write(indexes);
+        }
+    }
+
+    /**
+     * Writes the state of the open indexes, and the sections of those not opened yet,
+     * to a temporary file that then replaces the checkpoint.
+     */
+    synchronized void write(List<DerivedIndex> indexes) {
+        // Changes made while writing mark the checkpoint dirty again
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        lastWriteMillis = System.currentTimeMillis();
+
+        Map<String, ByteBuffer> payloads = new LinkedHashMap<>();
+        try {
+            for (DerivedIndex index : indexes) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (DataOutputStream out = new DataOutputStream(bytes)) {
+                    index.write(out);
+                }
+                payloads.put(index.getName(), ByteBuffer.wrap(bytes.toByteArray()));
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving checkpoint: " + e.getMessage());
+            dirty.set(true);
+            return;
+        }
+        detachSections();
+        for (Map.Entry<String, ByteBuffer> section : sections.entrySet()) {
+            payloads.putIfAbsent(section.getKey(), section.getValue());
+        }
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(payloads.size());
+            for (Map.Entry<String, ByteBuffer> section : payloads.entrySet()) {
+                out.writeUTF(section.getKey());
+                out.writeInt(section.getValue().remaining());
+            }
+            for (ByteBuffer payload : payloads.values()) {
+                ByteBuffer data = payload.duplicate();
+                byte[] chunk = new byte[8192];
+                while (data.hasRemaining()) {
+                    int length = Math.min(chunk.length, data.remaining());
+                    data.get(chunk, 0, length);
+                    out.write(chunk, 0, length);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving checkpoint: " + e.getMessage());
+            dirty.set(true);
+            return;
+        }
+
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // Happens e.g. on Windows while the old file is still mapped; the mapping goes away
+            // once it is garbage collected, so a later write can succeed
+            System.err.println("Error saving checkpoint: cannot replace " + file + ", keeping the previous one "
+                    + "and retrying with the next write: " + e);
+            tempFile.delete();
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * Replaces the mapped sections not taken yet by heap copies, so nothing references the mapping.
+     */
+    private void detachSections() {
+        for (Map.Entry<String, ByteBuffer> section : sections.entrySet()) {
+            ByteBuffer mapped = section.getValue();
+            if (mapped.isDirect()) {
+                ByteBuffer copy = ByteBuffer.allocate(mapped.remaining());
+                copy.put(mapped.duplicate()).flip();
+                section.setValue(copy);
+            }
+        }
+    }
+
+    /**
+     * Reads a section of the mapped file as a stream.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
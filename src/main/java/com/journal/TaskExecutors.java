@@ -0,0 +1,43 @@
+package com.journal;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the executors used for blocking, file-bound work.
+ * This is the Java 11 version, backed by platform thread pools. The multi-release JAR built
+ * with the {@code java21} profile replaces it with a version that runs every task on its own
+ * virtual thread (see {@code src/main/java21}).
+ */
+final class TaskExecutors {
+
+    private TaskExecutors() {
+    }
+
+    /**
+     * Tells whether tasks run on virtual threads.
+     */
+    static boolean usesVirtualThreads() {
+        return false;
+    }
+
+    /**
+     * Creates an executor for blocking tasks such as parallel day reads and writes.
+     * @param maxThreads Maximum number of tasks running at once
+     */
+    static ExecutorService newBlockingTaskExecutor(int maxThreads) {
+        return Executors.newFixedThreadPool(maxThreads);
+    }
+
+    /**
+     * Creates an executor for server requests: a fixed pool with a bounded queue.
+     * When the queue is full, the submitting thread runs the request itself.
+     */
+    static ExecutorService newRequestExecutor(int threads, int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
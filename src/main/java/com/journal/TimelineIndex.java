@@ -0,0 +1,159 @@
+package com.journal;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Prefix-sum index of consuming/productive minutes per day, backed by Fenwick trees.
+ * Range totals are answered in O(log n) and a single day can be updated in O(log n),
+ * where n is the number of days covered by the index.
+ */
+public class TimelineIndex {
+    private static final int GROWTH_MARGIN_DAYS = 366;
+
+    private long baseEpochDay;
+    private long[] consumingValues = new long[0];
+    private long[] productiveValues = new long[0];
+    private long[] consumingTree = new long[1];
+    private long[] productiveTree = new long[1];
+
+    /**
+     * Builds the index from daily rollups.
+     */
+    public static TimelineIndex fromRollups(Map<LocalDate, RollupStore.Rollup> daily) {
+        TimelineIndex index = new TimelineIndex();
+        if (daily.isEmpty()) {
+            return index;
+        }
+
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (LocalDate date : daily.keySet()) {
+            first = Math.min(first, date.toEpochDay());
+            last = Math.max(last, date.toEpochDay());
+        }
+
+        index.baseEpochDay = first;
+        int size = (int) (last - first + 1 + GROWTH_MARGIN_DAYS);
+        index.consumingValues = new long[size];
+        index.productiveValues = new long[size];
+        for (Map.Entry<LocalDate, RollupStore.Rollup> day : daily.entrySet()) {
+            int slot = (int) (day.getKey().toEpochDay() - first);
+            index.consumingValues[slot] = day.getValue().getConsumingMinutes();
+            index.productiveValues[slot] = day.getValue().getProductiveMinutes();
+        }
+        index.rebuildTrees();
+        return index;
+    }
+
+    /**
+     * Replaces the minutes recorded for one day.
+     */
+    public synchronized void setDay(LocalDate date, long consumingMinutes, long productiveMinutes) {
+        ensureCovers(date.toEpochDay());
+        int slot = (int) (date.toEpochDay() - baseEpochDay);
+        add(consumingTree, slot, consumingMinutes - consumingValues[slot]);
+        add(productiveTree, slot, productiveMinutes - productiveValues[slot]);
+        consumingValues[slot] = consumingMinutes;
+        productiveValues[slot] = productiveMinutes;
+    }
+
+    /**
+     * Gets total consuming minutes between two dates (inclusive).
+     */
+    public synchronized long getConsumingMinutes(LocalDate from, LocalDate to) {
+        return rangeSum(consumingTree, from, to);
+    }
+
+    /**
+     * Gets total productive minutes between two dates (inclusive).
+     */
+    public synchronized long getProductiveMinutes(LocalDate from, LocalDate to) {
+        return rangeSum(productiveTree, from, to);
+    }
+
+    private long rangeSum(long[] tree, LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || consumingValues.length == 0) {
+            return 0;
+        }
+        return prefixSum(tree, to.toEpochDay()) - prefixSum(tree, from.toEpochDay() - 1);
+    }
+
+    /**
+     * Sums the values of all days up to and including the given epoch day.
+     */
+    private long prefixSum(long[] tree, long epochDay) {
+        long slot = epochDay - baseEpochDay;
+        if (slot < 0) {
+            return 0;
+        }
+        int i = (int) Math.min(slot, consumingValues.length - 1) + 1;
+        long sum = 0;
+        while (i > 0) {
+            sum += tree[i];
+            i -= i & -i;
+        }
+        return sum;
+    }
+
+    private void add(long[] tree, int slot, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Grows the covered day range, with some margin, so the given day has a slot.
+     */
+    private void ensureCovers(long epochDay) {
+        if (consumingValues.length == 0) {
+            baseEpochDay = epochDay;
+            consumingValues = new long[GROWTH_MARGIN_DAYS];
+            productiveValues = new long[GROWTH_MARGIN_DAYS];
+            rebuildTrees();
+            return;
+        }
+
+        long last = baseEpochDay + consumingValues.length - 1;
+        if (epochDay >= baseEpochDay && epochDay <= last) {
+            return;
+        }
+
+        long newBase = epochDay < baseEpochDay ? epochDay - GROWTH_MARGIN_DAYS : baseEpochDay;
+        long newLast = epochDay > last ? epochDay + GROWTH_MARGIN_DAYS : last;
+        int size = (int) (newLast - newBase + 1);
+        int offset = (int) (baseEpochDay - newBase);
+
+        long[] newConsuming = new long[size];
+        long[] newProductive = new long[size];
+        System.arraycopy(consumingValues, 0, newConsuming, offset, consumingValues.length);
+        System.arraycopy(productiveValues, 0, newProductive, offset, productiveValues.length);
+        baseEpochDay = newBase;
+        consumingValues = newConsuming;
+        productiveValues = newProductive;
+        rebuildTrees();
+    }
+
+    /**
+     * Builds both Fenwick trees from the raw day values in O(n).
+     */
+    private void rebuildTrees() {
+        consumingTree = buildTree(consumingValues);
+        productiveTree = buildTree(productiveValues);
+    }
+
+    private static long[] buildTree(long[] values) {
+        long[] tree = new long[values.length + 1];
+        for (int i = 1; i <= values.length; i++) {
+            tree[i] += values[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= values.length) {
+                tree[parent] += tree[i];
+            }
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,213 @@
+package com.journal;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Time accounting for a period computed with a sweep line over the entries' start and end points,
+ * so overlapping entries are counted once and untracked time is visible.
+ * Entries are clipped to the period, which splits activities crossing its bounds (e.g. midnight).
+ */
+public class TimelineStats {
+    private static final int TRACKED = 0;
+    private static final int CONSUMING = 1;
+    private static final int PRODUCTIVE = 2;
+
+    /**
+     * A stretch of time not covered by any entry.
+     */
+    public static class Gap {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        public Gap(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public LocalDateTime getStart() { return start; }
+        public LocalDateTime getEnd() { return end; }
+
+        public long getMinutes() {
+            return Duration.between(start, end).toMinutes();
+        }
+
+        @Override
+        public String toString() {
+            return start + " - " + end;
+        }
+    }
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final long trackedSeconds;
+    private final long overlapSeconds;
+    private final long consumingSeconds;
+    private final long productiveSeconds;
+    private final List<Gap> gaps;
+
+    private TimelineStats(LocalDateTime from, LocalDateTime to, long trackedSeconds, long overlapSeconds,
+                          long consumingSeconds, long productiveSeconds, List<Gap> gaps) {
+        this.from = from;
+        this.to = to;
+        this.trackedSeconds = trackedSeconds;
+        this.overlapSeconds = overlapSeconds;
+        this.consumingSeconds = consumingSeconds;
+        this.productiveSeconds = productiveSeconds;
+        this.gaps = Collections.unmodifiableList(gaps);
+    }
+
+    /**
+     * Sweeps the entries over the period [from, to). Entries without an end time are ignored.
+     * Runs in O(n log n) for n entries.
+     */
+    public static TimelineStats sweep(Collection<JournalEntry> entries, LocalDateTime from, LocalDateTime to) {
+        long periodStart = toSeconds(from);
+        long periodEnd = toSeconds(to);
+
+        // Events packed as (time << 3 | flags): bit 0 is set for starts, bits 1-2 mark consuming/productive.
+        // With the start flag in the lowest bit, an end packs to a smaller value than a start at the same
+        // second, so the plain numeric sort puts it first and back-to-back entries do not overlap.
+        long[] events = new long[entries.size() * 2];
+        int count = 0;
+        for (JournalEntry entry : entries) {
+            if (entry.getStartTime() == null || entry.getEndTime() == null) {
+                continue;
+            }
+            long start = Math.max(toSeconds(entry.getStartTime()), periodStart);
+            long end = Math.min(toSeconds(entry.getEndTime()), periodEnd);
+            if (start >= end) {
+                continue;
+            }
+            int flags = (entry.isConsuming() ? 2 : 0) | (entry.isProductive() ? 4 : 0);
+            events[count++] = start << 3 | 1 | flags;
+            events[count++] = end << 3 | flags;
+        }
+        Arrays.sort(events, 0, count);
+
+        int[] depth = new int[3];
+        long[] covered = new long[3];
+        long overlap = 0;
+        List<Gap> gaps = new ArrayList<>();
+        long previous = periodStart;
+
+        for (int i = 0; i < count; i++) {
+            long time = events[i] >> 3;
+            if (time > previous) {
+                long span = time - previous;
+                if (depth[TRACKED] == 0) {
+                    gaps.add(new Gap(fromSeconds(previous), fromSeconds(time)));
+                }
+                for (int d = 0; d < depth.length; d++) {
+                    if (depth[d] > 0) {
+                        covered[d] += span;
+                    }
+                }
+                if (depth[TRACKED] > 1) {
+                    overlap += span;
+                }
+                previous = time;
+            }
+
+            int delta = (events[i] & 1) != 0 ? 1 : -1;
+            depth[TRACKED] += delta;
+            if ((events[i] & 2) != 0) {
+                depth[CONSUMING] += delta;
+            }
+            if ((events[i] & 4) != 0) {
+                depth[PRODUCTIVE] += delta;
+            }
+        }
+        if (periodEnd > previous) {
+            gaps.add(new Gap(fromSeconds(previous), to));
+        }
+
+        return new TimelineStats(from, to, covered[TRACKED], overlap, covered[CONSUMING], covered[PRODUCTIVE], gaps);
+    }
+
+    /**
+     * Combines the stats of consecutive periods, joining gaps that meet at a period boundary.
+     */
+    public static TimelineStats combine(List<TimelineStats> periods) {
+        if (periods.isEmpty()) {
+            throw new IllegalArgumentException("No periods to combine");
+        }
+        long tracked = 0;
+        long overlap = 0;
+        long consuming = 0;
+        long productive = 0;
+        List<Gap> gaps = new ArrayList<>();
+        for (TimelineStats period : periods) {
+            tracked += period.trackedSeconds;
+            overlap += period.overlapSeconds;
+            consuming += period.consumingSeconds;
+            productive += period.productiveSeconds;
+            for (Gap gap : period.gaps) {
+                Gap last = gaps.isEmpty() ? null : gaps.get(gaps.size() - 1);
+                if (last != null && last.getEnd().equals(gap.getStart())) {
+                    gaps.set(gaps.size() - 1, new Gap(last.getStart(), gap.getEnd()));
+                } else {
+                    gaps.add(gap);
+                }
+            }
+        }
+        return new TimelineStats(periods.get(0).from, periods.get(periods.size() - 1).to,
+                tracked, overlap, consuming, productive, gaps);
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromSeconds(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+
+    /** Time covered by at least one entry. */
+    public long getTrackedMinutes() { return trackedSeconds / 60; }
+
+    /** Time covered by two or more entries at once. */
+    public long getOverlapMinutes() { return overlapSeconds / 60; }
+
+    /** Time not covered by any entry. */
+    public long getUntrackedMinutes() {
+        return (toSeconds(to) - toSeconds(from) - trackedSeconds) / 60;
+    }
+
+    /** Time covered by at least one consuming entry. */
+    public long getConsumingMinutes() { return consumingSeconds / 60; }
+
+    /** Time covered by at least one productive entry. */
+    public long getProductiveMinutes() { return productiveSeconds / 60; }
+
+    /** The untracked stretches of the period, in order. */
+    public List<Gap> getGaps() { return gaps; }
+
+    /**
+     * Gets the longest untracked stretch, or null if the whole period is tracked.
+     */
+    public Gap getLongestGap() {
+        Gap longest = null;
+        for (Gap gap : gaps) {
+            if (longest == null || gap.getMinutes() > longest.getMinutes()) {
+                longest = gap;
+            }
+        }
+        return longest;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Tracked: %.2f hours | Untracked: %.2f hours | Overlap: %.2f hours | Gaps: %d",
+                getTrackedMinutes() / 60.0, getUntrackedMinutes() / 60.0, getOverlapMinutes() / 60.0, gaps.size());
+    }
+}
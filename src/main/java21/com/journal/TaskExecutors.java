@@ -0,0 +1,42 @@
+package com.journal;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors used for blocking, file-bound work.
+ * This is the Java 21 version from the multi-release JAR: every task runs on its own virtual
+ * thread, so thousands of concurrent file reads or requests do not tie up platform threads.
+ * The thread limits of the Java 11 version are not needed and are ignored.
+ * JournalManager guards its file I/O with ReentrantLocks rather than monitors, so a virtual
+ * thread waiting for a day or publish lock unmounts instead of pinning its carrier thread.
+ */
+final class TaskExecutors {
+
+    private TaskExecutors() {
+    }
+
+    /**
+     * Tells whether tasks run on virtual threads.
+     */
+    static boolean usesVirtualThreads() {
+        return true;
+    }
+
+    /**
+     * Creates an executor for blocking tasks such as parallel day reads and writes.
+     * @param maxThreads Ignored; virtual threads are created per task
+     */
+    static ExecutorService newBlockingTaskExecutor(int maxThreads) {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Creates an executor for server requests, one virtual thread per request.
+     * @param threads Ignored; virtual threads are created per request
+     * @param queueCapacity Ignored; requests never wait for a free thread
+     */
+    static ExecutorService newRequestExecutor(int threads, int queueCapacity) {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}